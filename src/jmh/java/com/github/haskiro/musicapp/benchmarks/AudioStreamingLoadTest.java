@@ -0,0 +1,187 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.MusicAppApplication;
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Many concurrent listeners seeking inside one track: boots the application on a random port
+ * against the in-memory test database and issues random Range requests against
+ * {@code GET /api/tracks/{id}/audio}.
+ * <p>
+ * Options are a comma separated list, e.g.
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.main=com.github.haskiro.musicapp.benchmarks.AudioStreamingLoadTest
+ * -Dbenchmark.args=listeners=64,seconds=30,chunk=262144,sendfile=true}
+ */
+public class AudioStreamingLoadTest {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int listeners = Integer.parseInt(options.getOrDefault("listeners", "64"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int chunk = Integer.parseInt(options.getOrDefault("chunk", "262144"));
+        int fileSize = Integer.parseInt(options.getOrDefault("size", String.valueOf(8 * 1024 * 1024)));
+        String sendfile = options.getOrDefault("sendfile", "true");
+
+        Path audio = Files.createTempFile("load-test", ".mp3");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(audio, content);
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) SpringApplication.run(
+                MusicAppApplication.class,
+                "--server.port=0",
+                "--app.audio.sendfile=" + sendfile,
+                "--logging.level.root=WARN");
+
+        try {
+            Track track = new Track("Load test", null, audio.toString(), LocalDate.of(2020, 1, 1));
+            track.setCreatedAt(OffsetDateTime.now());
+            int trackId = context.getBean(TrackRepository.class).save(track).getId();
+            String token = context.getBean(JwtService.class)
+                    .generateToken(UserDetailsImpl.of(1, "listener@example.com", Role.ROLE_USER));
+            URI uri = URI.create("http://localhost:" + context.getWebServer().getPort()
+                    + "/api/tracks/" + trackId + "/audio");
+
+            run(uri, token, listeners, 3, chunk, fileSize);
+            Result result = run(uri, token, listeners, seconds, chunk, fileSize);
+
+            System.out.printf("listeners=%d seconds=%d chunk=%d sendfile=%s%n", listeners, seconds, chunk, sendfile);
+            System.out.printf("requests=%d errors=%d rps=%.1f throughput=%.1f MB/s%n",
+                    result.count, result.errors, result.count / (double) seconds,
+                    result.bytes / (double) seconds / (1024 * 1024));
+            System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(0.999),
+                    result.percentile(1.0));
+        } finally {
+            context.close();
+            Files.deleteIfExists(audio);
+        }
+    }
+
+    private static Result run(URI uri, String token, int listeners, int seconds, int chunk, int fileSize)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(listeners);
+
+        try {
+            Future<?>[] futures = new Future<?>[listeners];
+            Result[] results = new Result[listeners];
+
+            for (int i = 0; i < listeners; i++) {
+                Result result = new Result();
+                results[i] = result;
+                futures[i] = executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    while (System.nanoTime() < deadline) {
+                        long start = random.nextLong(fileSize - chunk);
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Authorization", "Bearer " + token)
+                                .header("Range", "bytes=" + start + "-" + (start + chunk - 1))
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+                            if (response.statusCode() == 206 && response.body().length == chunk)
+                                result.record(System.nanoTime() - begin, chunk);
+                            else
+                                result.errors++;
+                        } catch (Exception e) {
+                            result.errors++;
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            Result total = new Result();
+            for (int i = 0; i < listeners; i++) {
+                futures[i].get();
+                total.merge(results[i]);
+            }
+
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            for (String option : arg.split(",")) {
+                int separator = option.indexOf('=');
+
+                if (separator > 0)
+                    options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long bytes;
+        private long errors;
+
+        void record(long latency, long size) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+
+            latencies[count++] = latency;
+            bytes += size;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], 0);
+            }
+            bytes += other.bytes;
+            errors += other.errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0)
+                return 0;
+
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Entry point of the benchmarks profile. Runs the JMH benchmarks matching {@code include} and writes their
+ * results as JSON to {@code result}; with {@code baseline} set to the results of an earlier run (say, of
+ * the last release), compares the two and exits with status 1 if any benchmark got slower by more than
+ * {@code threshold} percent and by more than both runs' error margins together:
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.args=include=Jwt.*,baseline=jmh-baseline.json,threshold=10}
+ * <p>
+ * An argument that does not start with {@code key=} is taken unchanged as the include pattern, so
+ * {@code -Djmh.include=<regex>} keeps working with any regex.
+ * {@code forks}, {@code warmup} and {@code iterations} override the benchmarks' own settings, and
+ * {@code run=false} only compares an existing result file with the baseline.
+ */
+public class BenchmarkRunner {
+    private static final Pattern OPTION = Pattern.compile("\\s*\\w+=");
+    // Only a comma that starts the next key=value splits, so values such as include patterns keep theirs
+    private static final Pattern OPTION_SEPARATOR = Pattern.compile(",(?=\\s*\\w+=)");
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Map<String, String> options = parseOptions(args);
+        File result = new File(options.getOrDefault("result", "target/jmh-result.json"));
+
+        if (!"false".equals(options.get("run"))) {
+            result.getAbsoluteFile().getParentFile().mkdirs();
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(options.getOrDefault("include", ".*"))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.getPath());
+            // Overrides of the annotations, e.g. for a quick smoke run
+            if (options.containsKey("forks"))
+                builder.forks(Integer.parseInt(options.get("forks")));
+            if (options.containsKey("warmup"))
+                builder.warmupIterations(Integer.parseInt(options.get("warmup")));
+            if (options.containsKey("iterations"))
+                builder.measurementIterations(Integer.parseInt(options.get("iterations")));
+
+            new Runner(builder.build()).run();
+        }
+
+        if (options.containsKey("baseline")) {
+            double threshold = Double.parseDouble(options.getOrDefault("threshold", "10"));
+            int regressions = compare(new File(options.get("baseline")), result, threshold);
+
+            if (regressions > 0) {
+                System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static int compare(File baselineFile, File resultFile, double threshold) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = byName(objectMapper.readTree(baselineFile));
+        Map<String, JsonNode> current = byName(objectMapper.readTree(resultFile));
+        int regressions = 0;
+
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null)
+                continue;
+
+            JsonNode after = entry.getValue();
+            double oldScore = before.at("/primaryMetric/score").asDouble();
+            double newScore = after.at("/primaryMetric/score").asDouble();
+            double margin = error(before) + error(after);
+
+            // Throughput is better when higher, every other mode measures time
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double change = (newScore - oldScore) / oldScore * 100;
+            double loss = higherIsBetter ? -change : change;
+            boolean regressed = loss > threshold && Math.abs(newScore - oldScore) > margin;
+            if (regressed)
+                regressions++;
+
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), oldScore, newScore, change,
+                    after.at("/primaryMetric/scoreUnit").asText() + (regressed ? "  REGRESSION" : ""));
+        }
+
+        return regressions;
+    }
+
+    // NaN when there was a single measurement iteration
+    private static double error(JsonNode result) {
+        double error = result.at("/primaryMetric/scoreError").asDouble(0);
+
+        return Double.isFinite(error) ? error : 0;
+    }
+
+    // Benchmark name with its parameters, e.g. TypeaheadBenchmark.suggest{entries=100000}
+    private static Map<String, JsonNode> byName(JsonNode results) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+
+        for (JsonNode result : results) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText()
+                    .replace(BenchmarkRunner.class.getPackageName() + ".", ""));
+            JsonNode params = result.path("params");
+            if (!params.isMissingNode()) {
+                name.append('{');
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> param = it.next();
+                    name.append(param.getKey()).append('=').append(param.getValue().asText())
+                            .append(it.hasNext() ? "," : "}");
+                }
+            }
+
+            byName.put(name.toString(), result);
+        }
+
+        return byName;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            if (!OPTION.matcher(arg).lookingAt()) {
+                // A bare include pattern is a regex and may itself contain commas, e.g. Jwt.{1,3}
+                if (!arg.isBlank())
+                    options.put("include", arg.trim());
+                continue;
+            }
+
+            for (String option : OPTION_SEPARATOR.split(arg)) {
+                int separator = option.indexOf('=');
+                options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.MusicAppApplication;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows per second for bulk catalog creation: boots the application on a random port against the
+ * in-memory test database and writes albums, each with its artists and tracks and the join table
+ * rows, one album per transaction.
+ * <p>
+ * Running once with {@code batch=1} gives the unbatched baseline, e.g.
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.main=com.github.haskiro.musicapp.benchmarks.BulkInsertLoadTest
+ * -Dbenchmark.args=albums=200,tracks=200,artists=2,batch=50}
+ * <p>
+ * The in-memory database has no network round trip, so it mostly shows the statement count. Pass
+ * {@code url}, {@code username} and {@code password} to measure against a scratch PostgreSQL
+ * database instead; its schema is dropped and recreated.
+ */
+public class BulkInsertLoadTest {
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int albums = Integer.parseInt(options.getOrDefault("albums", "200"));
+        int tracks = Integer.parseInt(options.getOrDefault("tracks", "200"));
+        int artists = Integer.parseInt(options.getOrDefault("artists", "2"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "50"));
+
+        List<String> properties = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--app.jdbc.batch-size=" + batch,
+                "--logging.level.root=WARN"));
+        if (options.containsKey("url")) {
+            // An empty driver class lets Spring derive it from the URL
+            properties.add("--spring.datasource.driver-class-name=");
+            properties.add("--spring.datasource.url=" + options.get("url"));
+            properties.add("--spring.datasource.username=" + options.getOrDefault("username", ""));
+            properties.add("--spring.datasource.password=" + options.getOrDefault("password", ""));
+            properties.add("--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=true");
+        }
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = SpringApplication.run(MusicAppApplication.class,
+                properties.toArray(String[]::new));
+
+        try {
+            EntityManager entityManager = context.getBean(EntityManager.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            for (int i = 0; i < Math.max(1, albums / 10); i++) {
+                insertAlbum(entityManager, transactionTemplate, i, tracks, artists);
+            }
+
+            statistics.clear();
+            long rows = 0;
+            long begin = System.nanoTime();
+            for (int i = 0; i < albums; i++) {
+                rows += insertAlbum(entityManager, transactionTemplate, i, tracks, artists);
+            }
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+            System.out.printf("albums=%d tracks=%d artists=%d batch=%d%n", albums, tracks, artists, batch);
+            System.out.printf("rows=%d seconds=%.2f rows/s=%.0f%n", rows, seconds, rows / seconds);
+            System.out.printf("statements=%d per album=%.1f%n", statistics.getPrepareStatementCount(),
+                    statistics.getPrepareStatementCount() / (double) albums);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Returns the number of rows written: entities plus album_track, album_artist and artist_track rows
+    private static long insertAlbum(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                    int number, int tracks, int artists) {
+        return transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            Set<Artist> albumArtists = new HashSet<>();
+
+            for (int i = 0; i < artists; i++) {
+                Artist artist = new Artist("bulk" + number + "-" + i, "First", "Last",
+                        LocalDate.of(1990, 1, 1), null, "", now);
+                entityManager.persist(artist);
+                albumArtists.add(artist);
+            }
+
+            Album album = new Album("Bulk " + number, "", null);
+            album.setCreatedAt(now);
+            album.setArtistList(albumArtists);
+            album.setTrackList(new HashSet<>());
+
+            for (int i = 0; i < tracks; i++) {
+                Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1));
+                track.setCreatedAt(now);
+                track.setArtistList(albumArtists);
+                entityManager.persist(track);
+                album.getTrackList().add(track);
+            }
+            entityManager.persist(album);
+            entityManager.flush();
+            entityManager.clear();
+
+            return (long) artists + 1 + tracks + artists + tracks + (long) tracks * artists;
+        });
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            for (String option : arg.split(",")) {
+                int separator = option.indexOf('=');
+
+                if (separator > 0)
+                    options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Random;
+
+final class CatalogFixtures {
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2023-04-01T12:00:00Z");
+
+    private static final String[] WORDS = {
+            "love", "night", "dream", "fire", "heart", "rain", "city", "light", "dance", "summer", "blue", "road",
+            "star", "river", "gold", "shadow", "echo", "storm", "wild", "home", "ghost", "neon", "ocean", "stone"
+    };
+
+    private CatalogFixtures() {
+    }
+
+    static Track track(int id) {
+        Track track = new Track("Track " + id, "/covers/" + id + ".jpg", "/audio/" + id + ".mp3",
+                LocalDate.of(2020, 1, 1).plusDays(id % 1000));
+        track.setId(id);
+        track.setCreatedAt(CREATED_AT);
+
+        return track;
+    }
+
+    static Artist artist(int id) {
+        Artist artist = new Artist("nick" + id, "First", "Last", LocalDate.of(1990, 1, 1),
+                "/artists/" + id + ".jpg", "Biography of artist " + id, CREATED_AT);
+        artist.setId(id);
+
+        return artist;
+    }
+
+    static Album album(int id) {
+        Album album = new Album("Album " + id, "Description of album " + id, "/albums/" + id + ".jpg");
+        album.setId(id);
+        album.setCreatedAt(CREATED_AT);
+
+        return album;
+    }
+
+    // One to four words from a small vocabulary with a number, so prefixes share long runs like real titles
+    static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length()).append(' ');
+        }
+
+        return title.append(random.nextInt(10_000)).toString();
+    }
+}
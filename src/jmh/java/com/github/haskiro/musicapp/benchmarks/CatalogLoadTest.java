@@ -0,0 +1,410 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.MusicAppApplication;
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.models.User;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mixed read, write and login traffic against a seeded catalog. Boots the application on a random port
+ * against the in-memory test database (H2 in PostgreSQL mode, so no network or server is needed), seeds
+ * {@code artists}, {@code tracks} with {@code density} artists each, an album per ten tracks and
+ * {@code users}, then runs {@code vus} virtual users, each sending its next request as soon as the last
+ * one is answered, for {@code seconds}.
+ * <p>
+ * Each virtual user picks a request by the weights in {@code mix}:
+ * <ul>
+ *     <li>{@code tracks} - GET /api/tracks, walking the pages by cursor;</li>
+ *     <li>{@code artist} - GET /api/artists/{id} of a random artist;</li>
+ *     <li>{@code login} - POST /api/auth/login of a random user, which hashes with bcrypt;</li>
+ *     <li>{@code update} - PATCH /api/tracks/{id} of a random track as an admin.</li>
+ * </ul>
+ * Reports requests per second and p50/p99/p999 latency per request kind. SQL statements per request are
+ * measured by a sequential pass over each kind beforehand, since the counters cannot tell concurrent
+ * requests apart. Run with
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.main=com.github.haskiro.musicapp.benchmarks.CatalogLoadTest
+ * -Dbenchmark.args=artists=1000,tracks=20000,density=2,users=50,vus=32,seconds=30,mix=tracks:60/artist:30/login:2/update:8}
+ */
+public class CatalogLoadTest {
+    private static final String PASSWORD = "load-test-password";
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int artists = Integer.parseInt(options.getOrDefault("artists", "1000"));
+        int tracks = Integer.parseInt(options.getOrDefault("tracks", "20000"));
+        int density = Integer.parseInt(options.getOrDefault("density", "2"));
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int vus = Integer.parseInt(options.getOrDefault("vus", "32"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "tracks:60/artist:30/login:2/update:8"));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) SpringApplication.run(
+                MusicAppApplication.class,
+                "--server.port=0",
+                "--logging.level.root=WARN");
+
+        try {
+            long begin = System.nanoTime();
+            Catalog catalog = seed(context, artists, tracks, density, users);
+            System.out.printf("seeded artists=%d tracks=%d density=%d users=%d in %.1f s%n", artists, tracks,
+                    density, users, (System.nanoTime() - begin) / 1_000_000_000.0);
+
+            JwtService jwtService = context.getBean(JwtService.class);
+            Target target = new Target(
+                    "http://localhost:" + context.getWebServer().getPort(),
+                    jwtService.generateToken(UserDetailsImpl.of(catalog.userIds().get(0), "user0@load.test",
+                            Role.ROLE_USER)),
+                    jwtService.generateToken(UserDetailsImpl.of(catalog.adminId(), "admin@load.test",
+                            Role.ROLE_ADMIN)),
+                    catalog);
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            run(target, mix, vus, warmup);
+            Map<String, Double> statementsPerRequest = countStatements(target, mix.keySet(), statistics);
+
+            statistics.clear();
+            Map<String, Result> results = run(target, mix, vus, seconds);
+            long statements = statistics.getPrepareStatementCount();
+
+            System.out.printf("vus=%d seconds=%d mix=%s%n", vus, seconds, mix);
+            System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %8s%n",
+                    "request", "count", "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "max ms", "sql/req");
+            Result total = new Result();
+            for (Map.Entry<String, Result> entry : results.entrySet()) {
+                print(entry.getKey(), entry.getValue(), seconds, statementsPerRequest.get(entry.getKey()));
+                total.merge(entry.getValue());
+            }
+            print("total", total, seconds, statements / (double) Math.max(1, total.count));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, Result> run(Target target, Map<String, Integer> mix, int vus, int seconds)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String[] kinds = weighted(mix);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(vus);
+
+        try {
+            List<Future<Map<String, Result>>> futures = new ArrayList<>();
+            for (int i = 0; i < vus; i++) {
+                futures.add(executor.submit(() -> {
+                    Map<String, Result> results = new HashMap<>();
+                    VirtualUser user = new VirtualUser(target, client);
+
+                    while (System.nanoTime() < deadline) {
+                        String kind = kinds[ThreadLocalRandom.current().nextInt(kinds.length)];
+                        user.send(kind, results.computeIfAbsent(kind, k -> new Result()));
+                    }
+                    return results;
+                }));
+            }
+
+            Map<String, Result> total = new TreeMap<>();
+            for (Future<Map<String, Result>> future : futures) {
+                future.get().forEach((kind, result) -> total.computeIfAbsent(kind, k -> new Result()).merge(result));
+            }
+
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, Double> countStatements(Target target, Set<String> kinds, Statistics statistics)
+            throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        VirtualUser user = new VirtualUser(target, client);
+        Map<String, Double> perRequest = new HashMap<>();
+
+        for (String kind : kinds) {
+            int requests = kind.equals("login") ? 10 : 100;
+            statistics.clear();
+            for (int i = 0; i < requests; i++) {
+                user.send(kind, new Result());
+            }
+            perRequest.put(kind, statistics.getPrepareStatementCount() / (double) requests);
+        }
+
+        return perRequest;
+    }
+
+    private static Catalog seed(ServletWebServerApplicationContext context, int artists, int tracks, int density,
+                                int users) {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        OffsetDateTime now = OffsetDateTime.now();
+        Random random = new Random(42);
+
+        List<Integer> artistIds = new ArrayList<>(artists);
+        for (int from = 0; from < artists; from += 1000) {
+            int to = Math.min(artists, from + 1000);
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < to; i++) {
+                    Artist artist = new Artist("artist" + i, "First", "Last", LocalDate.of(1990, 1, 1), null,
+                            "Biography of artist " + i, now);
+                    entityManager.persist(artist);
+                    artistIds.add(artist.getId());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        // Ten tracks to an album, which shares the artists of its first track
+        List<Integer> trackIds = new ArrayList<>(tracks);
+        for (int from = 0; from < tracks; from += 1000) {
+            int to = Math.min(tracks, from + 1000);
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                Album album = null;
+                for (int i = first; i < to; i++) {
+                    Set<Artist> trackArtists = new HashSet<>();
+                    while (trackArtists.size() < Math.min(density, artists)) {
+                        int artistId = artistIds.get(random.nextInt(artistIds.size()));
+                        trackArtists.add(entityManager.getReference(Artist.class, artistId));
+                    }
+
+                    Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1).plusDays(i % 1000));
+                    track.setCreatedAt(now);
+                    track.setArtistList(trackArtists);
+                    entityManager.persist(track);
+                    trackIds.add(track.getId());
+
+                    if (i % 10 == 0) {
+                        album = new Album("Album " + i / 10, "", null);
+                        album.setCreatedAt(now);
+                        album.setArtistList(new HashSet<>(trackArtists));
+                        album.setTrackList(new HashSet<>());
+                        entityManager.persist(album);
+                    }
+                    album.getTrackList().add(track);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        List<Integer> userIds = new ArrayList<>(users);
+        int adminId = transactionTemplate.execute(status -> {
+            for (int i = 0; i < users; i++) {
+                userIds.add(persistUser(entityManager, "user" + i + "@load.test", passwordHash, Role.ROLE_USER, now));
+            }
+
+            return persistUser(entityManager, "admin@load.test", passwordHash, Role.ROLE_ADMIN, now);
+        });
+
+        return new Catalog(artistIds, trackIds, userIds, adminId);
+    }
+
+    private static int persistUser(EntityManager entityManager, String email, String passwordHash, Role role,
+                                   OffsetDateTime now) {
+        User user = new User(email, "Load", "Tester", null, null, passwordHash);
+        user.setRole(role);
+        user.setCreatedAt(now);
+        entityManager.persist(user);
+
+        return user.getId();
+    }
+
+    private static void print(String kind, Result result, int seconds, Double statements) {
+        System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %8s%n", kind, result.count, result.errors,
+                result.count / (double) seconds, result.percentile(0.50), result.percentile(0.99),
+                result.percentile(0.999), result.percentile(1.0),
+                statements == null ? "" : String.format("%.1f", statements));
+    }
+
+    // One entry per unit of weight, so a uniform pick follows the mix
+    private static String[] weighted(Map<String, Integer> mix) {
+        List<String> kinds = new ArrayList<>();
+        mix.forEach((kind, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                kinds.add(kind);
+            }
+        });
+
+        return kinds.toArray(String[]::new);
+    }
+
+    // tracks:60/artist:30 - the separator is not a comma, which already separates the options
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+
+        for (String part : mix.split("/")) {
+            String[] kindAndWeight = part.split(":");
+            String kind = kindAndWeight[0].trim();
+            if (!List.of("tracks", "artist", "login", "update").contains(kind))
+                throw new IllegalArgumentException("Unknown request kind " + kind);
+
+            int weight = Integer.parseInt(kindAndWeight[1].trim());
+            if (weight > 0)
+                weights.put(kind, weight);
+        }
+
+        return weights;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            for (String option : arg.split(",")) {
+                int separator = option.indexOf('=');
+
+                if (separator > 0)
+                    options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+
+    private record Catalog(List<Integer> artistIds, List<Integer> trackIds, List<Integer> userIds, int adminId) {
+    }
+
+    private record Target(String baseUrl, String userToken, String adminToken, Catalog catalog) {
+    }
+
+    private static final class VirtualUser {
+        private final Target target;
+        private final HttpClient client;
+        private String cursor;
+        private int updates;
+
+        VirtualUser(Target target, HttpClient client) {
+            this.target = target;
+            this.client = client;
+        }
+
+        void send(String kind, Result result) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Catalog catalog = target.catalog();
+
+            HttpRequest request = switch (kind) {
+                case "tracks" -> get("/api/tracks?limit=20" + (cursor == null ? "" : "&cursor=" + cursor),
+                        target.userToken());
+                case "artist" -> get("/api/artists/" + catalog.artistIds().get(random.nextInt(catalog.artistIds().size())),
+                        target.userToken());
+                case "login" -> HttpRequest.newBuilder(URI.create(target.baseUrl() + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"user"
+                                + random.nextInt(catalog.userIds().size()) + "@load.test\",\"password\":\""
+                                + PASSWORD + "\"}"))
+                        .build();
+                case "update" -> {
+                    int trackId = catalog.trackIds().get(random.nextInt(catalog.trackIds().size()));
+                    yield HttpRequest.newBuilder(URI.create(target.baseUrl() + "/api/tracks/" + trackId))
+                            .header("Authorization", "Bearer " + target.adminToken())
+                            .header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"title\":\"Track " + trackId
+                                    + " v" + ++updates + "\",\"releasedAt\":\"2020-01-01\"}"))
+                            .build();
+                }
+                default -> throw new IllegalArgumentException(kind);
+            };
+
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+                if (response.statusCode() != 200) {
+                    result.errors++;
+                    return;
+                }
+                result.record(System.nanoTime() - begin);
+
+                if (kind.equals("tracks")) {
+                    Matcher next = NEXT_CURSOR.matcher(response.body());
+                    cursor = next.find() ? next.group(1) : null;
+                }
+            } catch (Exception e) {
+                result.errors++;
+            }
+        }
+
+        private HttpRequest get(String path, String token) {
+            return HttpRequest.newBuilder(URI.create(target.baseUrl() + path))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+        }
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long latency) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+
+            latencies[count++] = latency;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0)
+                return 0;
+
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumDTO;
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistWithTracksAndAlbumsDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.CreateArtistDTO;
+import com.github.haskiro.musicapp.dto.trackDTO.TrackDTO;
+import com.github.haskiro.musicapp.dto.userDTO.RegistrationDTO;
+import com.github.haskiro.musicapp.dto.userDTO.UserDTO;
+import com.github.haskiro.musicapp.mappers.AlbumMapper;
+import com.github.haskiro.musicapp.mappers.ArtistMapper;
+import com.github.haskiro.musicapp.mappers.TrackMapper;
+import com.github.haskiro.musicapp.mappers.UserMapper;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.models.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Explicit mappers against the reflective ModelMapper they replaced, for single entities and a 10k list,
+ * plus every other conversion the mappers make between entities and the DTOs in dto/.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+    private ModelMapper modelMapper;
+    private TrackMapper trackMapper;
+    private ArtistMapper artistMapper;
+    private AlbumMapper albumMapper;
+    private UserMapper userMapper;
+
+    private Track track;
+    private List<Track> tracks;
+    private Artist artist;
+    private Album album;
+    private User user;
+
+    private TrackDTO trackDTO;
+    private ArtistDTO artistDTO;
+    private CreateArtistDTO createArtistDTO;
+    private AlbumDTO albumDTO;
+    private UserDTO userDTO;
+    private RegistrationDTO registrationDTO;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.typeMap(Artist.class, ArtistWithTracksAndAlbumsDTO.class).addMappings(mapper -> {
+            mapper.map(Artist::getTrackList, ArtistWithTracksAndAlbumsDTO::setTracks);
+            mapper.map(Artist::getAlbumList, ArtistWithTracksAndAlbumsDTO::setAlbums);
+        });
+
+        trackMapper = new TrackMapper();
+        albumMapper = new AlbumMapper(trackMapper);
+        artistMapper = new ArtistMapper(trackMapper, albumMapper);
+        userMapper = new UserMapper();
+
+        tracks = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tracks.add(CatalogFixtures.track(i));
+        }
+        track = tracks.get(0);
+
+        artist = CatalogFixtures.artist(1);
+        artist.setTrackList(new HashSet<>(tracks.subList(0, 50)));
+        Set<Album> albums = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            albums.add(CatalogFixtures.album(i));
+        }
+        artist.setAlbumList(albums);
+
+        album = CatalogFixtures.album(1);
+        album.setTrackList(new HashSet<>(tracks.subList(0, 12)));
+
+        user = new User("user@example.com", "First", "Last", null, "bio", "password");
+        user.setId(1);
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setCreatedAt(OffsetDateTime.now());
+
+        trackDTO = trackMapper.toDTO(track);
+        artistDTO = artistMapper.toDTO(artist);
+        albumDTO = albumMapper.toDTO(album);
+        userDTO = userMapper.toDTO(user);
+
+        createArtistDTO = new CreateArtistDTO();
+        createArtistDTO.setNickname("nick");
+        createArtistDTO.setFirstName("First");
+        createArtistDTO.setLastName("Last");
+        createArtistDTO.setBirthDate(LocalDate.of(1990, 1, 1));
+        createArtistDTO.setBio("bio");
+
+        registrationDTO = new RegistrationDTO();
+        registrationDTO.setEmail("user@example.com");
+        registrationDTO.setFirstName("First");
+        registrationDTO.setLastName("Last");
+        registrationDTO.setPassword("password");
+    }
+
+    @Benchmark
+    public TrackDTO trackModelMapper() {
+        return modelMapper.map(track, TrackDTO.class);
+    }
+
+    @Benchmark
+    public TrackDTO trackMapper() {
+        return trackMapper.toDTO(track);
+    }
+
+    @Benchmark
+    public List<TrackDTO> trackListModelMapper() {
+        return tracks.stream().map(t -> modelMapper.map(t, TrackDTO.class)).toList();
+    }
+
+    @Benchmark
+    public List<TrackDTO> trackListMapper() {
+        return tracks.stream().map(trackMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public ArtistWithTracksAndAlbumsDTO artistDetailModelMapper() {
+        return modelMapper.map(artist, ArtistWithTracksAndAlbumsDTO.class);
+    }
+
+    @Benchmark
+    public ArtistWithTracksAndAlbumsDTO artistDetailMapper() {
+        return artistMapper.toWithTracksAndAlbumsDTO(artist);
+    }
+
+    @Benchmark
+    public UserDTO userModelMapper() {
+        return modelMapper.map(user, UserDTO.class);
+    }
+
+    @Benchmark
+    public UserDTO userMapper() {
+        return userMapper.toDTO(user);
+    }
+
+    @Benchmark
+    public ArtistDTO artistMapper() {
+        return artistMapper.toDTO(artist);
+    }
+
+    @Benchmark
+    public AlbumDTO albumMapper() {
+        return albumMapper.toDTO(album);
+    }
+
+    @Benchmark
+    public AlbumWithTracksDTO albumDetailMapper() {
+        return albumMapper.toWithTracksDTO(album);
+    }
+
+    @Benchmark
+    public Track trackFromDTO() {
+        return trackMapper.toEntity(trackDTO);
+    }
+
+    @Benchmark
+    public Artist artistFromDTO() {
+        return artistMapper.toEntity(artistDTO);
+    }
+
+    @Benchmark
+    public Artist artistFromCreateDTO() {
+        return artistMapper.toEntity(createArtistDTO);
+    }
+
+    @Benchmark
+    public Album albumFromDTO() {
+        return albumMapper.toEntity(albumDTO);
+    }
+
+    @Benchmark
+    public User userFromDTO() {
+        return userMapper.toEntity(userDTO);
+    }
+
+    @Benchmark
+    public User userFromRegistrationDTO() {
+        return userMapper.toEntity(registrationDTO);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity equals/hashCode as exercised by the Set-typed relation collections: filling a set, and lookups
+ * of entities that are in it (equal but distinct instances, as after a reload) and of ones that are not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntitySetBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<Track> tracks;
+    private List<Artist> artists;
+    private Set<Track> trackSet;
+    private Set<Artist> artistSet;
+    private Track presentTrack;
+    private Track absentTrack;
+    private Artist presentArtist;
+
+    @Setup
+    public void setUp() {
+        tracks = new ArrayList<>(size);
+        artists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tracks.add(CatalogFixtures.track(i));
+            artists.add(CatalogFixtures.artist(i));
+        }
+
+        trackSet = new HashSet<>(tracks);
+        artistSet = new HashSet<>(artists);
+        presentTrack = CatalogFixtures.track(size / 2);
+        absentTrack = CatalogFixtures.track(size + 1);
+        presentArtist = CatalogFixtures.artist(size / 2);
+    }
+
+    @Benchmark
+    public Set<Track> fillTrackSet() {
+        return new HashSet<>(tracks);
+    }
+
+    @Benchmark
+    public Set<Artist> fillArtistSet() {
+        return new HashSet<>(artists);
+    }
+
+    @Benchmark
+    public boolean containsTrack() {
+        return trackSet.contains(presentTrack);
+    }
+
+    @Benchmark
+    public boolean containsAbsentTrack() {
+        return trackSet.contains(absentTrack);
+    }
+
+    @Benchmark
+    public boolean containsArtist() {
+        return artistSet.contains(presentArtist);
+    }
+}
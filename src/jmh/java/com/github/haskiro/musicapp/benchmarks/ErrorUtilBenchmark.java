@@ -0,0 +1,40 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.dto.trackDTO.TrackDTO;
+import com.github.haskiro.musicapp.util.ErrorUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting the field errors of a rejected request body into the message returned to the client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorUtilBenchmark {
+    @Param({"1", "5", "20"})
+    private int errors;
+
+    private BindingResult bindingResult;
+
+    @Setup
+    public void setUp() {
+        bindingResult = new BeanPropertyBindingResult(new TrackDTO(), "trackDTO");
+
+        for (int i = 0; i < errors; i++) {
+            bindingResult.rejectValue(i % 2 == 0 ? "title" : "releasedAt", "invalid",
+                    "Field is invalid, error number " + i);
+        }
+    }
+
+    @Benchmark
+    public String returnErrorsAsString() {
+        return ErrorUtil.returnErrorsAsString(bindingResult);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistWithTracksAndAlbumsDTO;
+import com.github.haskiro.musicapp.mappers.AlbumMapper;
+import com.github.haskiro.musicapp.mappers.ArtistMapper;
+import com.github.haskiro.musicapp.mappers.TrackMapper;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the artist detail response, with the ObjectMapper configured the way Spring
+ * Boot configures it for the HTTP message converters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    @Param({"10", "200"})
+    private int tracks;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter artistWriter;
+    private ArtistWithTracksAndAlbumsDTO artist;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        artistWriter = objectMapper.writerFor(ArtistWithTracksAndAlbumsDTO.class);
+
+        Artist entity = CatalogFixtures.artist(1);
+        Set<Track> trackList = new HashSet<>();
+        for (int i = 0; i < tracks; i++) {
+            trackList.add(CatalogFixtures.track(i));
+        }
+        Set<Album> albumList = new HashSet<>();
+        for (int i = 0; i < Math.max(1, tracks / 10); i++) {
+            albumList.add(CatalogFixtures.album(i));
+        }
+        entity.setTrackList(trackList);
+        entity.setAlbumList(albumList);
+
+        TrackMapper trackMapper = new TrackMapper();
+        artist = new ArtistMapper(trackMapper, new AlbumMapper(trackMapper)).toWithTracksAndAlbumsDTO(entity);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(artist);
+    }
+
+    @Benchmark
+    public byte[] writeWithPreparedWriter() throws JsonProcessingException {
+        return artistWriter.writeValueAsBytes(artist);
+    }
+}
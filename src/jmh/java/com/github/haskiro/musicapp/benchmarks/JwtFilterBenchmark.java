@@ -0,0 +1,100 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.config.jwt.JwtAuthenticationFilter;
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.security.PrincipalCache;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of a request through JwtAuthenticationFilter: anonymous, with a valid token whose principal
+ * is cached, with a valid token verified and resolved from its claims every time, and with a forged one.
+ * The user is never loaded from the database here; that path costs a query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest forgedRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        cachedFilter = filter(4096, 10_000);
+        uncachedFilter = filter(0, 0);
+
+        String token = new JwtService(JwtVerificationBenchmark.SECRET, Duration.ofMinutes(24), 0,
+                new SimpleMeterRegistry()).generateToken(UserDetailsImpl.of(1, "user@example.com", Role.ROLE_USER));
+
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/tracks");
+        validRequest = new MockHttpServletRequest("GET", "/api/tracks");
+        validRequest.addHeader("Authorization", "Bearer " + token);
+        forgedRequest = new MockHttpServletRequest("GET", "/api/tracks");
+        forgedRequest.addHeader("Authorization", "Bearer " + token.substring(0, token.length() - 2) + "xx");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public MockFilterChain anonymous() throws ServletException, IOException {
+        return run(cachedFilter, anonymousRequest);
+    }
+
+    @Benchmark
+    public MockFilterChain validTokenCached() throws ServletException, IOException {
+        return run(cachedFilter, validRequest);
+    }
+
+    @Benchmark
+    public MockFilterChain validTokenUncached() throws ServletException, IOException {
+        return run(uncachedFilter, validRequest);
+    }
+
+    @Benchmark
+    public MockFilterChain forgedToken() throws ServletException, IOException {
+        return run(cachedFilter, forgedRequest);
+    }
+
+    private MockFilterChain run(JwtAuthenticationFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        SecurityContextHolder.clearContext();
+
+        return chain;
+    }
+
+    private static JwtAuthenticationFilter filter(int verifiedCacheSize, int principalCacheSize) {
+        JwtService jwtService = new JwtService(JwtVerificationBenchmark.SECRET, Duration.ofMinutes(24),
+                verifiedCacheSize, new SimpleMeterRegistry());
+        PrincipalCache principalCache = new PrincipalCache(principalCacheSize, Duration.ofMinutes(5),
+                Duration.ofMinutes(24));
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, username -> {
+            throw new UsernameNotFoundException(username);
+        }, principalCache);
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        return filter;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second: the old per-call parser/key path (three parses per request)
+ * against the pre-built parser with and without the verified-token cache; and tokens issued per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    static final String SECRET = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy1vbmx5LTAxMjM0NTY3ODlhYmNkZWY=";
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedService = new JwtService(SECRET, Duration.ofMinutes(24), 4096, new SimpleMeterRegistry());
+        uncachedService = new JwtService(SECRET, Duration.ofMinutes(24), 0, new SimpleMeterRegistry());
+        userDetails = UserDetailsImpl.of(1, "user@example.com", Role.ROLE_USER);
+        token = cachedService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        // extractUsername in the filter, then extractUsername and extractExpiration in isTokenValid
+        String email = legacyClaims(token).getSubject();
+        String username = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+
+        return email != null && username.equals(userDetails.getUsername()) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedService.extractAllClaims(token);
+
+        return uncachedService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean singleParseCached() {
+        Claims claims = cachedService.extractAllClaims(token);
+
+        return cachedService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cachedService.generateToken(userDetails);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.MusicAppApplication;
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Platform against virtual request threads when requests mostly wait on the database. Boots the
+ * application on a random port against the in-memory test database, with every connection held for
+ * {@code delay} ms longer than its work takes, as a slow query would hold it, and has {@code clients}
+ * concurrent clients page through GET /api/tracks for {@code seconds}.
+ * <p>
+ * With {@code mode=platform} Tomcat serves the requests on {@code threads} workers; with
+ * {@code mode=virtual} (Java 21 only) on a virtual thread each, and at most {@code waiters} of them may
+ * wait for one of the {@code pool} connections. Reports throughput, latency, requests refused with 503 and
+ * the peak number of platform threads. Run each mode in turn, e.g.
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.main=com.github.haskiro.musicapp.benchmarks.ThreadModeLoadTest
+ * -Dbenchmark.args=mode=platform,clients=512,threads=64,pool=32,delay=20,seconds=30}
+ */
+public class ThreadModeLoadTest {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String mode = options.getOrDefault("mode", "platform");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "512"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        int pool = Integer.parseInt(options.getOrDefault("pool", "32"));
+        int waiters = Integer.parseInt(options.getOrDefault("waiters", "200"));
+        int delay = Integer.parseInt(options.getOrDefault("delay", "20"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplication application = new SpringApplication(MusicAppApplication.class);
+        application.addInitializers(context -> context.getBeanFactory()
+                .addBeanPostProcessor(new SlowConnectionPostProcessor(delay)));
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) application.run(
+                "--server.port=0",
+                "--app.threads.virtual=" + mode.equals("virtual"),
+                "--server.tomcat.threads.max=" + threads,
+                "--spring.datasource.hikari.maximum-pool-size=" + pool,
+                "--spring.datasource.hikari.connection-timeout=5000",
+                "--app.jdbc.max-connection-waiters=" + waiters,
+                "--app.cache.enabled=false",
+                "--logging.level.root=WARN");
+
+        try {
+            TrackRepository trackRepository = context.getBean(TrackRepository.class);
+            for (int i = 0; i < 200; i++) {
+                Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1).plusDays(i));
+                track.setCreatedAt(OffsetDateTime.now());
+                trackRepository.save(track);
+            }
+            String token = context.getBean(JwtService.class)
+                    .generateToken(UserDetailsImpl.of(1, "listener@example.com", Role.ROLE_USER));
+            URI uri = URI.create("http://localhost:" + context.getWebServer().getPort() + "/api/tracks?limit=20");
+
+            run(uri, token, clients, 3);
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            Result result = run(uri, token, clients, seconds);
+
+            System.out.printf("mode=%s clients=%d threads=%d pool=%d waiters=%d delay=%d ms seconds=%d%n",
+                    mode, clients, threads, pool, waiters, delay, seconds);
+            System.out.printf("requests=%d rps=%.1f rejected=%d errors=%d peak platform threads=%d%n",
+                    result.count, result.count / (double) seconds, result.rejected, result.errors,
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(0.999),
+                    result.percentile(1.0));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(URI uri, String token, int clients, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    Result result = new Result();
+
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+
+                            if (status == 200)
+                                result.record(System.nanoTime() - begin);
+                            else if (status == 503)
+                                result.rejected++;
+                            else
+                                result.errors++;
+                        } catch (Exception e) {
+                            result.errors++;
+                        }
+                    }
+                    return result;
+                }));
+            }
+
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            for (String option : arg.split(",")) {
+                int separator = option.indexOf('=');
+
+                if (separator > 0)
+                    options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+
+    // Returns connections to the pool only after the delay, so the request thread blocks while holding one
+    private record SlowConnectionPostProcessor(int delay) implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource))
+                return bean;
+
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection());
+                }
+            };
+        }
+
+        private Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("close"))
+                            Thread.sleep(delay);
+
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long rejected;
+        private long errors;
+
+        void record(long latency) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+
+            latencies[count++] = latency;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0)
+                return 0;
+
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import com.github.haskiro.musicapp.util.search.TypeaheadIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups of ten suggestions for prefixes of one to six characters and of two words, with
+ * an empty overlay and with one holding a thousand recent changes, plus the cost of a change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+    @Param({"100000", "1000000"})
+    private int entries;
+
+    private TypeaheadIndex index;
+    private TypeaheadIndex indexWithOverlay;
+    private String[] prefixes;
+    private String[] twoWordPrefixes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Suggestion> suggestions = new ArrayList<>(entries);
+        for (int id = 0; id < entries; id++) {
+            suggestions.add(new Suggestion(id, CatalogFixtures.title(random)));
+        }
+
+        index = new TypeaheadIndex(Integer.MAX_VALUE);
+        index.load(suggestions);
+
+        indexWithOverlay = new TypeaheadIndex(Integer.MAX_VALUE);
+        indexWithOverlay.load(suggestions);
+        for (int i = 0; i < 1000; i++) {
+            indexWithOverlay.put(random.nextInt(entries * 2), CatalogFixtures.title(random));
+        }
+
+        prefixes = new String[1024];
+        twoWordPrefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String title = suggestions.get(random.nextInt(entries)).title().toLowerCase();
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(6)));
+
+            int space = title.indexOf(' ');
+            twoWordPrefixes[i] = title.substring(0, Math.min(title.length(), space + 3));
+        }
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return index.suggest(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestTwoWords() {
+        return index.suggest(twoWordPrefixes[ThreadLocalRandom.current().nextInt(twoWordPrefixes.length)], 10);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestWithOverlay() {
+        return indexWithOverlay.suggest(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    // Renames within the overlay, so the index never compacts here
+    @Benchmark
+    public void put() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        indexWithOverlay.put(entries * 2 + random.nextInt(1000), prefixes[random.nextInt(prefixes.length)]);
+    }
+}
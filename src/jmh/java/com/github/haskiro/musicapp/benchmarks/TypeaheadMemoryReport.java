@@ -0,0 +1,93 @@
+package com.github.haskiro.musicapp.benchmarks;
+
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import com.github.haskiro.musicapp.util.search.TypeaheadIndex;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Heap taken by a {@link TypeaheadIndex} of generated titles, split into the titles themselves and the
+ * index built over them, and how long building it takes. Run with
+ * {@code mvn -Pbenchmarks test-compile exec:exec
+ * -Dbenchmark.main=com.github.haskiro.musicapp.benchmarks.TypeaheadMemoryReport
+ * -Dbenchmark.args=entries=1000000}
+ * <p>
+ * Heap is measured as used memory after repeated full collections, so run it with nothing else in the
+ * JVM; the figures are rough to a few hundred kilobytes.
+ */
+public class TypeaheadMemoryReport {
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int entries = Integer.parseInt(options.getOrDefault("entries", "1000000"));
+
+        long empty = usedHeap();
+
+        Random random = new Random(42);
+        String[] titles = new String[entries];
+        for (int id = 0; id < entries; id++) {
+            titles[id] = CatalogFixtures.title(random);
+        }
+        long withTitles = usedHeap();
+
+        // The index keeps the same title strings, so what it adds on top of them is its own
+        List<Suggestion> suggestions = new ArrayList<>(entries);
+        for (int id = 0; id < entries; id++) {
+            suggestions.add(new Suggestion(id, titles[id]));
+        }
+
+        long begin = System.nanoTime();
+        TypeaheadIndex index = new TypeaheadIndex(Integer.MAX_VALUE);
+        index.load(suggestions);
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        suggestions = null;
+        long withIndex = usedHeap();
+
+        double perMillion = 1_000_000.0 / entries / (1024 * 1024);
+        System.out.printf("entries:                 %d%n", index.size());
+        System.out.printf("build time:              %d ms%n", buildMillis);
+        System.out.printf("titles:                  %.1f MiB per million entries%n", (withTitles - empty) * perMillion);
+        System.out.printf("index without titles:    %.1f MiB per million entries%n", (withIndex - withTitles) * perMillion);
+        System.out.printf("bytes per entry, total:  %.0f%n", (double) (withIndex - empty) / entries);
+
+        Reference.reachabilityFence(titles);
+        Reference.reachabilityFence(index);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+
+        return used;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            for (String option : arg.split(",")) {
+                int separator = option.indexOf('=');
+
+                if (separator > 0)
+                    options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            }
+        }
+
+        return options;
+    }
+}
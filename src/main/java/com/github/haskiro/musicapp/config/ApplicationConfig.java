@@ -2,8 +2,11 @@ package com.github.haskiro.musicapp.config;
 
 import com.github.haskiro.musicapp.models.User;
 import com.github.haskiro.musicapp.repositories.UserRepository;
+import com.github.haskiro.musicapp.security.OffloadingPasswordEncoder;
+import com.github.haskiro.musicapp.security.PasswordHashingExecutor;
+import com.github.haskiro.musicapp.security.TimedPasswordEncoder;
 import com.github.haskiro.musicapp.security.UserDetailsImpl;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,17 +18,21 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
 @Configuration
 public class ApplicationConfig {
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
-    public ApplicationConfig(UserRepository userRepository) {
+    public ApplicationConfig(UserRepository userRepository, MeterRegistry meterRegistry,
+                             PasswordHashingExecutor passwordHashingExecutor) {
         this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     @Bean
@@ -38,11 +45,6 @@ public class ApplicationConfig {
         };
     }
 
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -57,9 +59,11 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    // Exposed as OffloadingPasswordEncoder so that login and registration can hash asynchronously
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadingPasswordEncoder passwordEncoder() {
+        return new OffloadingPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry),
+                passwordHashingExecutor);
     }
 }
 
@@ -0,0 +1,82 @@
+package com.github.haskiro.musicapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for tracks, artists, albums and their collections, plus the query
+ * cache for catalog pages, backed by Caffeine through JCache.
+ * <p>
+ * Every region is created here with a size bound and a time-to-live; Hibernate is told to fail
+ * rather than silently create an unbounded cache for a region that is missing from this list.
+ * Entities and collections changed through the session are evicted by Hibernate on commit, and
+ * cached query results are invalidated whenever one of their tables is written.
+ */
+@Configuration
+public class CacheConfig {
+    public static final List<String> ENTITY_REGIONS = List.of("track", "artist", "album");
+    public static final List<String> COLLECTION_REGIONS = List.of(
+            "track.artists", "track.albums",
+            "artist.tracks", "artist.albums",
+            "album.tracks", "album.artists");
+
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.entity.max-size:10000}") long entityMaxSize,
+                                              @Value("${app.cache.query.max-size:1000}") long queryMaxSize,
+                                              @Value("${app.cache.ttl:30m}") Duration ttl) {
+        // A separate manager per application context, so test contexts do not share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("music-app:hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : ENTITY_REGIONS) {
+            cacheManager.createCache(region, bounded(entityMaxSize, ttl));
+        }
+        for (String region : COLLECTION_REGIONS) {
+            cacheManager.createCache(region, bounded(entityMaxSize, ttl));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, bounded(queryMaxSize, ttl));
+        // Timestamps decide whether a cached query is stale, so they must never be evicted
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                    @Value("${app.cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Hit and miss counts for the hibernate.second.level.cache.* and hibernate.cache.query.* meters
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static <K, V> CaffeineConfiguration<K, V> bounded(long maxSize, Duration ttl) {
+        CaffeineConfiguration<K, V> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+
+        return configuration;
+    }
+}
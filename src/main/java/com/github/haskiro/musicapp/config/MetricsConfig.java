@@ -0,0 +1,20 @@
+package com.github.haskiro.musicapp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Most meters come from Spring Boot: http.server.requests per endpoint, spring.data.repository.invocations
+ * per repository method, hikaricp.* per pool and hibernate.* from the session factory statistics. Classes
+ * annotated with {@code @Timed} add a timer per public method, tagged with class, method and exception.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
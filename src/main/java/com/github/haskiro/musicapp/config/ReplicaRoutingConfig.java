@@ -0,0 +1,84 @@
+package com.github.haskiro.musicapp.config;
+
+import com.github.haskiro.musicapp.util.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, switched on by listing them under {@code app.datasource.replicas}.
+ * <p>
+ * The primary keeps {@code spring.datasource} and its {@code hikari} settings. Every replica gets a
+ * pool of its own from the HikariCP settings of its entry ({@code jdbc-url}, {@code username},
+ * {@code maximum-pool-size}, ...), opened on first use, so a replica that is down at startup only
+ * keeps its reads on the primary. Services need no changes: their read-only transactions go to
+ * the replicas, see {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].jdbc-url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.max-lag:PT10S}") Duration maxLag,
+            // An available replica is at most max-lag behind, so by then it has the write as well
+            @Value("${app.datasource.primary-after-write:${app.datasource.max-lag:PT10S}}") Duration primaryAfterWrite,
+            @Value("${app.datasource.lag-query:" + DEFAULT_LAG_QUERY + "}") String lagQuery) {
+        List<HikariConfig> configs = Binder.get(environment)
+                .bind("app.datasource.replicas", Bindable.listOf(HikariConfig.class))
+                .orElse(List.of());
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (int i = 0; i < configs.size(); i++) {
+            HikariConfig config = configs.get(i);
+            if (config.getPoolName() == null)
+                config.setPoolName("replica-" + (i + 1));
+            // A statement that writes fails on the replica instead of waiting for a standby error
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            HikariDataSource replica = new HikariDataSource();
+            config.copyStateTo(replica);
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, primaryAfterWrite, lagQuery,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Zero when all received WAL is replayed, so an idle replica does not look behind
+    private static final String DEFAULT_LAG_QUERY = "select case when pg_last_wal_receive_lsn() = " +
+            "pg_last_wal_replay_lsn() then 0 else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+}
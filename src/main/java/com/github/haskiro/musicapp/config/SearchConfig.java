@@ -0,0 +1,59 @@
+package com.github.haskiro.musicapp.config;
+
+import com.github.haskiro.musicapp.repositories.FullTextSearchRepository;
+import com.github.haskiro.musicapp.repositories.LikeSearchRepository;
+import com.github.haskiro.musicapp.repositories.SearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Picks the catalog search implementation: PostgreSQL full-text search with GIN indexes, or a LIKE scan
+ * on other databases. {@code app.search.mode} is {@code auto} (by the database product),
+ * {@code full-text} or {@code like}.
+ * <p>
+ * With full-text search the indexes from {@code db/catalog-search.sql} are created at startup, after
+ * Hibernate has created the schema, unless {@code app.search.create-indexes} is false.
+ */
+@Configuration
+public class SearchConfig {
+    private static final Logger log = LoggerFactory.getLogger(SearchConfig.class);
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public SearchRepository searchRepository(DataSource dataSource, NamedParameterJdbcTemplate jdbcTemplate,
+                                             @Value("${app.search.mode:auto}") String mode,
+                                             @Value("${app.search.create-indexes:true}") boolean createIndexes)
+            throws MetaDataAccessException {
+        boolean fullText = switch (mode) {
+            case "full-text" -> true;
+            case "like" -> false;
+            case "auto" -> "PostgreSQL".equals(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+            default -> throw new IllegalStateException(
+                    "app.search.mode must be auto, full-text or like, was '" + mode + "'");
+        };
+
+        if (!fullText) {
+            log.info("Catalog search scans the tables with LIKE; use PostgreSQL for indexed full-text search");
+
+            return new LikeSearchRepository(jdbcTemplate);
+        }
+
+        if (createIndexes)
+            new ResourceDatabasePopulator(new ClassPathResource("db/catalog-search.sql")).execute(dataSource);
+
+        return new FullTextSearchRepository(jdbcTemplate);
+    }
+}
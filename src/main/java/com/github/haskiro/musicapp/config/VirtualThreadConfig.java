@@ -0,0 +1,59 @@
+package com.github.haskiro.musicapp.config;
+
+import com.github.haskiro.musicapp.util.datasource.ConnectionAdmissionPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Request handling on virtual threads, switched on by {@code app.threads.virtual=true} on Java 21.
+ * <p>
+ * Tomcat starts a virtual thread for every request, and so does MVC for the streamed catalog exports.
+ * Services and their transactions run on the request thread, so a request waiting for JDBC or the disk
+ * parks its virtual thread instead of holding one of a fixed number of workers. Password hashing keeps
+ * its own bounded pool of platform threads.
+ * <p>
+ * Without the worker limit any number of requests could queue up for a pooled connection, so every
+ * pool, the read replicas' included, lets at most {@code app.jdbc.max-connection-waiters} of them wait
+ * and refuses the rest, which are answered with 503. The pools stay sized for the database, not for
+ * the request count.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    // Also the meter binder for the rejections of every pool it wraps
+    @Bean
+    public static ConnectionAdmissionPostProcessor connectionAdmissionPostProcessor(
+            @Value("${app.jdbc.max-connection-waiters:200}") int maxWaiters) {
+        return new ConnectionAdmissionPostProcessor(maxWaiters);
+    }
+
+    // Looked up at runtime so that the default Java 17 build compiles; -Pjava21 targets 21
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("app.threads.virtual needs Java 21, running on " + Runtime.version());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
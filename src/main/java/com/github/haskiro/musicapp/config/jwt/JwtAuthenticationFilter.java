@@ -1,16 +1,21 @@
 package com.github.haskiro.musicapp.config.jwt;
 
+import com.github.haskiro.musicapp.security.PrincipalCache;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,11 +27,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+
+    // Trust id and role claims of the token instead of loading the user on a cache miss
+    @Value("${app.jwt.stateless:true}")
+    private boolean stateless;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   PrincipalCache principalCache) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -36,7 +48,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwtToken;
-        final String email;
+        final Claims claims;
 
         // Если токена нет, то передаем request и response в следующий фильтр
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -45,11 +57,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwtToken = authHeader.substring(7);
-        email = jwtService.extractUsername(jwtToken);
+
+        // Подпись и срок действия проверяются при разборе токена
+        try {
+            claims = jwtService.extractAllClaims(jwtToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String email = claims.getSubject();
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(email);
-            if (jwtService.isTokenValid(jwtToken, userDetails)) {
+            UserDetails userDetails = resolvePrincipal(email, claims);
+
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -66,4 +88,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String email, Claims claims) {
+        UserDetails principal = principalCache.get(email);
+
+        if (principal != null)
+            return principal;
+
+        if (stateless && !principalCache.isRevoked(email, claims.getIssuedAt()))
+            principal = jwtService.extractPrincipal(claims);
+
+        if (principal == null) {
+            try {
+                UserDetailsImpl loaded = (UserDetailsImpl) userDetailsService.loadUserByUsername(email);
+                principal = UserDetailsImpl.of(loaded.getUser().getId(), email, loaded.getUser().getRole());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+
+        principalCache.put(email, principal);
+
+        return principal;
+    }
 }
@@ -1,10 +1,15 @@
 package com.github.haskiro.musicapp.config.jwt;
 
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -13,23 +18,81 @@ import org.springframework.core.env.Environment;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${app.secret}")
-    private String SECRET_KEY;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+    private final Duration expiration;
+    // Verification time of tokens found in the cache below and of those parsed and checked anew
+    private final Timer cachedVerification;
+    private final Timer fullVerification;
+
+    // Digest of a recently verified token -> its claims, saves the signature check and JSON parsing on reuse
+    private final Map<String, Claims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Autowired
+    public JwtService(@Value("${app.secret}") String secretKey,
+                      @Value("${app.jwt.expiration:24m}") Duration expiration,
+                      @Value("${app.jwt.verified-cache.size:4096}") int verifiedCacheSize,
+                      MeterRegistry meterRegistry) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.expiration = expiration;
+        this.cachedVerification = Timer.builder("auth.jwt.verify")
+                .tag("cache", "hit")
+                .register(meterRegistry);
+        this.fullVerification = Timer.builder("auth.jwt.verify")
+                .tag("cache", "miss")
+                .register(meterRegistry);
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+
+        // Id and role let the authentication filter build the principal without a database lookup
+        if (userDetails instanceof UserDetailsImpl details) {
+            claims.put(USER_ID_CLAIM, details.getUser().getId());
+            claims.put(ROLE_CLAIM, details.getUser().getRole().name());
+        }
+
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(
@@ -42,22 +105,23 @@ public class JwtService {
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration.toMillis()))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+
+        return expiration != null && expiration.before(new Date());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -66,17 +130,63 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Builds the principal from the id and role claims, or returns {@code null} for tokens issued without them.
+     */
+    public UserDetails extractPrincipal(Claims claims) {
+        Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+
+        if (userId == null || role == null)
+            return null;
+
+        try {
+            return UserDetailsImpl.of(userId, claims.getSubject(), Role.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Verifies the token and returns its claims. The returned object may be shared
+     * between requests presenting the same token and must not be modified.
+     */
+    public Claims extractAllClaims(String token) {
+        long start = System.nanoTime();
+        String digest = digest(token);
+        Claims claims;
+
+        synchronized (verifiedTokens) {
+            claims = verifiedTokens.get(digest);
+        }
+
+        if (claims != null) {
+            if (!isTokenExpired(claims)) {
+                cachedVerification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return claims;
+            }
+
+            synchronized (verifiedTokens) {
+                verifiedTokens.remove(digest);
+            }
+        }
+
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } finally {
+            fullVerification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(digest, claims);
+        }
+
+        return claims;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+
+        return Base64.getEncoder().encodeToString(hash);
     }
 }
@@ -2,24 +2,39 @@ package com.github.haskiro.musicapp.controllers;
 
 import com.github.haskiro.musicapp.dto.albumDTO.AlbumDTO;
 import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.dto.importDTO.ImportResultDTO;
+import com.github.haskiro.musicapp.dto.importDTO.ReleaseImportDTO;
+import com.github.haskiro.musicapp.dto.relationDTO.RelationDTO;
+import com.github.haskiro.musicapp.mappers.AlbumMapper;
 import com.github.haskiro.musicapp.models.Album;
 import com.github.haskiro.musicapp.services.AlbumService;
+import com.github.haskiro.musicapp.services.CatalogImportService;
 import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import com.github.haskiro.musicapp.util.VersionTag;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import com.github.haskiro.musicapp.util.exceptions.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 
@@ -28,25 +43,45 @@ import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 public class AlbumController {
 
     private final AlbumService albumService;
-    private final ModelMapper modelMapper;
-    @Value("${upload.path}")
-    private String uploadPath;
+    private final CatalogImportService catalogImportService;
+    private final AlbumMapper albumMapper;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public AlbumController(AlbumService albumService, ModelMapper modelMapper) {
+    public AlbumController(AlbumService albumService, CatalogImportService catalogImportService,
+                           AlbumMapper albumMapper, ObjectMapper objectMapper) {
         this.albumService = albumService;
-        this.modelMapper = modelMapper;
+        this.catalogImportService = catalogImportService;
+        this.albumMapper = albumMapper;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<AlbumDTO> findAll() {
-        return albumService.findAll().stream().map(this::converToAlbumDTO)
-                .collect(Collectors.toList());
+    public CursorPage<AlbumDTO> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                    @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                    @RequestParam(value = "title", required = false) String title) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return albumService.findPage(request, title).map(this::converToAlbumDTO);
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE)
+    public StreamingResponseBody export() {
+        return outputStream -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+                albumService.forEachAlbum(album -> writer.write(albumMapper.toDTO(album)));
+            }
+        };
     }
 
     @GetMapping("/{id}")
-    public AlbumWithTracksDTO findById(@PathVariable("id") int id) {
-        return converToAlbumWithTracksDTO(albumService.findById(id));
+    public ResponseEntity<AlbumWithTracksDTO> findById(@PathVariable("id") int id) {
+        Album album = albumService.findByIdWithTracks(id);
+
+        return ResponseEntity.ok()
+                .eTag(VersionTag.of(album.getVersion()))
+                .body(converToAlbumWithTracksDTO(album));
     }
 
     @PostMapping
@@ -63,6 +98,29 @@ public class AlbumController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // One release graph: 201 with the new album id, or 422 with the reason it was rejected
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResultDTO> importRelease(@RequestBody ReleaseImportDTO release) {
+        ImportResultDTO result = catalogImportService.importRelease(release);
+
+        return new ResponseEntity<>(result, result.isCreated() ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // One release per line; a result line per release is written as each batch is committed
+    @PostMapping(value = "/import", consumes = NdjsonWriter.MEDIA_TYPE)
+    public void importReleases(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            catalogImportService.importReleases(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8),
+                    results -> {
+                        results.forEach(writer::write);
+                        writer.flush();
+                    });
+        }
+    }
+
     @PostMapping("/{id}/upload-image")
     public ResponseEntity<HttpStatus> uploadPhoto(@PathVariable("id") int id,
                                                   @RequestPart MultipartFile image) {
@@ -72,35 +130,110 @@ public class AlbumController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Attaches a cover that is already stored, by content hash, without sending it again; 404 if unknown
+    @PutMapping(value = "/{id}/cover", params = "sha256")
+    public ResponseEntity<HttpStatus> attachCover(@PathVariable("id") int id,
+                                                  @RequestParam("sha256") String sha256) {
+        albumService.attachCover(id, sha256);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
     @PostMapping("/{album_id}/tracks/{track_id}")
     public ResponseEntity<HttpStatus> setRelationBetweenAlbumAndTrack(
             @PathVariable("album_id") int albumId,
             @PathVariable("track_id") int trackId
     ) {
-        albumService.setRelationBetweenAlbumAndTrack(albumId, trackId);
+        albumService.addTracks(albumId, List.of(trackId));
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{album_id}/tracks/{track_id}")
+    public ResponseEntity<HttpStatus> removeRelationBetweenAlbumAndTrack(
+            @PathVariable("album_id") int albumId,
+            @PathVariable("track_id") int trackId
+    ) {
+        albumService.removeTracks(albumId, List.of(trackId));
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
     @PostMapping("/{album_id}/artists/{artist_id}")
-    public ResponseEntity<HttpStatus> setRelationBetweenAlbumAndAlbum(
+    public ResponseEntity<HttpStatus> setRelationBetweenAlbumAndArtist(
+            @PathVariable("album_id") int albumId,
+            @PathVariable("artist_id") int artistId
+    ) {
+        albumService.addArtists(albumId, List.of(artistId));
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{album_id}/artists/{artist_id}")
+    public ResponseEntity<HttpStatus> removeRelationBetweenAlbumAndArtist(
             @PathVariable("album_id") int albumId,
             @PathVariable("artist_id") int artistId
     ) {
-        albumService.setRelationBetweenAlbumAndAlbum(albumId, artistId);
+        albumService.removeArtists(albumId, List.of(artistId));
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @PostMapping("/{album_id}/tracks")
+    public ResponseEntity<HttpStatus> addTracks(@PathVariable("album_id") int albumId,
+                                                @RequestBody @Valid RelationDTO request,
+                                                BindingResult bindingResult) {
+        checkRelationRequest(bindingResult);
+
+        albumService.addTracks(albumId, request.getIds());
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{album_id}/tracks")
+    public ResponseEntity<HttpStatus> removeTracks(@PathVariable("album_id") int albumId,
+                                                   @RequestParam("ids") List<Integer> trackIds) {
+        albumService.removeTracks(albumId, trackIds);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @PostMapping("/{album_id}/artists")
+    public ResponseEntity<HttpStatus> addArtists(@PathVariable("album_id") int albumId,
+                                                 @RequestBody @Valid RelationDTO request,
+                                                 BindingResult bindingResult) {
+        checkRelationRequest(bindingResult);
+
+        albumService.addArtists(albumId, request.getIds());
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{album_id}/artists")
+    public ResponseEntity<HttpStatus> removeArtists(@PathVariable("album_id") int albumId,
+                                                    @RequestParam("ids") List<Integer> artistIds) {
+        albumService.removeArtists(albumId, artistIds);
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
-    private <T> Album convertToAlbum(T dto) {
-        return modelMapper.map(dto, Album.class);
+    private void checkRelationRequest(BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            String errorMessage = returnErrorsAsString(bindingResult);
+
+            throw new AlbumCreateUpdateException(errorMessage);
+        }
+    }
+
+    private Album convertToAlbum(AlbumDTO dto) {
+        return albumMapper.toEntity(dto);
     }
     private AlbumDTO converToAlbumDTO(Album album) {
-        return modelMapper.map(album, AlbumDTO.class);
+        return albumMapper.toDTO(album);
     }
 
     private AlbumWithTracksDTO converToAlbumWithTracksDTO(Album album) {
-        return modelMapper.map(album, AlbumWithTracksDTO.class);
+        return albumMapper.toWithTracksDTO(album);
     }
 
 
@@ -153,4 +286,54 @@ public class AlbumController {
 
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(FileUploadException e) {
+        ErrorResponse response = new ErrorResponse(
+                "File uploading error",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(ImageNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Image not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(FileTooLargeException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    private ResponseEntity<ErrorResponse> handleVersionConflict(RuntimeException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Resource has been modified since it was read",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
 }
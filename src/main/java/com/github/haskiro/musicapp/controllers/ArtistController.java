@@ -3,28 +3,39 @@ package com.github.haskiro.musicapp.controllers;
 import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
 import com.github.haskiro.musicapp.dto.artistDTO.ArtistWithTracksAndAlbumsDTO;
 import com.github.haskiro.musicapp.dto.artistDTO.CreateArtistDTO;
+import com.github.haskiro.musicapp.dto.relationDTO.RelationDTO;
+import com.github.haskiro.musicapp.mappers.ArtistMapper;
 import com.github.haskiro.musicapp.models.Artist;
 import com.github.haskiro.musicapp.services.ArtistService;
 import com.github.haskiro.musicapp.services.TrackService;
+import com.github.haskiro.musicapp.util.exceptions.FileTooLargeException;
 import com.github.haskiro.musicapp.util.exceptions.ArtistCreateUpdateException;
 import com.github.haskiro.musicapp.util.exceptions.ArtistNotFoundException;
 import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import com.github.haskiro.musicapp.util.VersionTag;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
 import com.github.haskiro.musicapp.util.exceptions.TrackNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 
@@ -32,31 +43,44 @@ import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 @RequestMapping("/api/artists")
 public class ArtistController {
     private final ArtistService artistService;
-    private final ModelMapper modelMapper;
+    private final ArtistMapper artistMapper;
     private final TrackService trackService;
-
-    @Value("${upload.path}")
-    private String uploadPath;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ArtistController(ArtistService artistService, ModelMapper modelMapper, TrackService trackService) {
+    public ArtistController(ArtistService artistService, ArtistMapper artistMapper, TrackService trackService, ObjectMapper objectMapper) {
         this.artistService = artistService;
-        this.modelMapper = modelMapper;
+        this.artistMapper = artistMapper;
         this.trackService = trackService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<ArtistDTO> findAll() {
-        List<Artist> artists =  artistService.findAll();
+    public CursorPage<ArtistDTO> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", required = false) Integer limit,
+                                     @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                     @RequestParam(value = "nickname", required = false) String nickname) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return artistService.findPage(request, nickname).map(this::converToArtistDTO);
+    }
 
-        return artists.stream().map(this::converToArtistDTO).collect(Collectors.toList());
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE)
+    public StreamingResponseBody export() {
+        return outputStream -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+                artistService.forEachArtist(artist -> writer.write(artistMapper.toDTO(artist)));
+            }
+        };
     }
 
     @GetMapping("/{id}")
-    public ArtistWithTracksAndAlbumsDTO findOneById(@PathVariable("id") int id) {
-        Artist artist = artistService.findById(id);
+    public ResponseEntity<ArtistWithTracksAndAlbumsDTO> findOneById(@PathVariable("id") int id) {
+        Artist artist = artistService.findByIdWithTracksAndAlbums(id);
 
-        return convertToArtistWithTracksDTO(artist);
+        return ResponseEntity.ok()
+                .eTag(VersionTag.of(artist.getVersion()))
+                .body(convertToArtistWithTracksDTO(artist));
     }
 
     @DeleteMapping("/{id}")
@@ -66,13 +90,21 @@ public class ArtistController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Ids that are already gone are skipped, so a retried batch succeeds
+    @DeleteMapping
+    public ResponseEntity<HttpStatus> deleteArtists(@RequestParam("ids") List<Integer> ids) {
+        artistService.deleteArtists(ids);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
 
     @PostMapping("/{artist_id}/tracks/{track_id}")
     public ResponseEntity<HttpStatus> setRelationBetweenArtistAndTrack(
             @PathVariable("artist_id") int artistId,
             @PathVariable("track_id") int trackId
     ) {
-        artistService.setRelationBetweenArtistAndTrack(trackId, artistId);
+        artistService.addTracks(artistId, List.of(trackId));
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
@@ -82,7 +114,30 @@ public class ArtistController {
             @PathVariable("artist_id") int artistId,
             @PathVariable("track_id") int trackId
     ) {
-        artistService.removeRelationBetweenArtistAndTrack(trackId, artistId);
+        artistService.removeTracks(artistId, List.of(trackId));
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @PostMapping("/{artist_id}/tracks")
+    public ResponseEntity<HttpStatus> addTracks(@PathVariable("artist_id") int artistId,
+                                                @RequestBody @Valid RelationDTO request,
+                                                BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            String errorMessage = returnErrorsAsString(bindingResult);
+
+            throw new ArtistCreateUpdateException(errorMessage);
+        }
+
+        artistService.addTracks(artistId, request.getIds());
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{artist_id}/tracks")
+    public ResponseEntity<HttpStatus> removeTracks(@PathVariable("artist_id") int artistId,
+                                                   @RequestParam("ids") List<Integer> trackIds) {
+        artistService.removeTracks(artistId, trackIds);
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
@@ -113,8 +168,18 @@ public class ArtistController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Attaches a photo that is already stored, by content hash, without sending it again; 404 if unknown
+    @PutMapping(value = "/{id}/photo", params = "sha256")
+    public ResponseEntity<HttpStatus> attachPhoto(@PathVariable("id") int id,
+                                                  @RequestParam("sha256") String sha256) {
+        artistService.attachPhoto(id, sha256);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<HttpStatus> updateArtist(@PathVariable("id") int id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @RequestBody @Valid ArtistDTO request,
                                                    BindingResult bindingResult) {
         Artist artist = convertToArtist(request);
@@ -126,21 +191,25 @@ public class ArtistController {
             throw new ArtistCreateUpdateException(errorMessage);
         }
 
-        artistService.updateArtist(artist);
+        artistService.updateArtist(artist, VersionTag.fromIfMatch(ifMatch));
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
     private ArtistDTO converToArtistDTO(Artist artist) {
-        return modelMapper.map(artist, ArtistDTO.class);
+        return artistMapper.toDTO(artist);
     }
 
-    private <T> Artist convertToArtist(T dto) {
-        return modelMapper.map(dto, Artist.class);
+    private Artist convertToArtist(ArtistDTO dto) {
+        return artistMapper.toEntity(dto);
+    }
+
+    private Artist convertToArtist(CreateArtistDTO dto) {
+        return artistMapper.toEntity(dto);
     }
 
     private ArtistWithTracksAndAlbumsDTO convertToArtistWithTracksDTO(Artist artist) {
-        return modelMapper.map(artist, ArtistWithTracksAndAlbumsDTO.class);
+        return artistMapper.toWithTracksAndAlbumsDTO(artist);
     }
 
     @ExceptionHandler
@@ -192,4 +261,44 @@ public class ArtistController {
 
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(ImageNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Image not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(FileTooLargeException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    private ResponseEntity<ErrorResponse> handleVersionConflict(RuntimeException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Resource has been modified since it was read",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -3,15 +3,17 @@ package com.github.haskiro.musicapp.controllers;
 
 import com.github.haskiro.musicapp.dto.userDTO.LoginDTO;
 import com.github.haskiro.musicapp.dto.userDTO.RegistrationDTO;
+import com.github.haskiro.musicapp.mappers.UserMapper;
 import com.github.haskiro.musicapp.models.User;
 import com.github.haskiro.musicapp.services.UserService;
 import com.github.haskiro.musicapp.util.AuthenticationResponse;
 import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.exceptions.AuthenticationBusyException;
 import com.github.haskiro.musicapp.util.exceptions.UserCreateUpdateException;
 import com.github.haskiro.musicapp.util.UserValidator;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -19,6 +21,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 
@@ -26,19 +29,19 @@ import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 @RequestMapping("/api/auth")
 public class AuthenticationController {
     private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final UserValidator userValidator;
 
     @Autowired
-    public AuthenticationController(UserService userService, ModelMapper modelMapper, UserValidator userValidator) {
+    public AuthenticationController(UserService userService, UserMapper userMapper, UserValidator userValidator) {
         this.userService = userService;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.userValidator = userValidator;
     }
 
     @PostMapping("/registration")
-    public ResponseEntity<AuthenticationResponse> register(@RequestBody @Valid RegistrationDTO request,
-                                                           BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> register(@RequestBody @Valid RegistrationDTO request,
+                                                                              BindingResult bindingResult) {
         User user = convertToUser(request);
         userValidator.validate(user, bindingResult);
 
@@ -48,18 +51,20 @@ public class AuthenticationController {
             throw new UserCreateUpdateException(errorMessage);
         }
 
-
-        return ResponseEntity.ok(userService.register(user));
+        return userService.register(user)
+                .thenApply(ResponseEntity::ok);
     }
 
+    // The request thread is released while the password is checked
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponse> login(@RequestBody @Valid LoginDTO request,
-                                                        BindingResult bindingResult) {
-        return ResponseEntity.ok(userService.login(request));
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> login(@RequestBody @Valid LoginDTO request,
+                                                                           BindingResult bindingResult) {
+        return userService.login(request)
+                .thenApply(ResponseEntity::ok);
     }
 
     public User convertToUser(RegistrationDTO registrationDTO) {
-        return modelMapper.map(registrationDTO, User.class);
+        return userMapper.toEntity(registrationDTO);
     }
 
     @ExceptionHandler
@@ -82,4 +87,16 @@ public class AuthenticationController {
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(AuthenticationBusyException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+
+        return new ResponseEntity<>(response, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.util.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Answers 503 with Retry-After when no database connection could be had in time, whichever endpoint
+ * asked for it: the pool timed out, or too many requests were already waiting for it.
+ */
+@RestControllerAdvice
+public class ConnectionPoolExceptionHandler {
+    private final Duration retryAfter;
+
+    public ConnectionPoolExceptionHandler(@Value("${app.jdbc.retry-after:1s}") Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    private ResponseEntity<ErrorResponse> handleException(RuntimeException e) {
+        if (!isConnectionUnavailable(e))
+            throw e;
+
+        ErrorResponse response = new ErrorResponse(
+                "The database is busy, try again later",
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+
+        return new ResponseEntity<>(response, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static boolean isConnectionUnavailable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.dto.searchDTO.SearchHitDTO;
+import com.github.haskiro.musicapp.dto.searchDTO.SuggestionDTO;
+import com.github.haskiro.musicapp.services.SearchService;
+import com.github.haskiro.musicapp.services.TypeaheadService;
+import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.exceptions.SearchQueryException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.search.SearchHit;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+import com.github.haskiro.musicapp.util.search.SearchType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    private final SearchService searchService;
+    private final TypeaheadService typeaheadService;
+
+    @Autowired
+    public SearchController(SearchService searchService, TypeaheadService typeaheadService) {
+        this.searchService = searchService;
+        this.typeaheadService = typeaheadService;
+    }
+
+    // Tracks, artists and albums ranked together; type narrows it down, e.g. type=artist,album
+    @GetMapping
+    public CursorPage<SearchHitDTO> search(@RequestParam(value = "q", required = false) String query,
+                                           @RequestParam(value = "type", required = false) List<String> types,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        SearchRequest request = SearchRequest.of(query, types, cursor, limit);
+
+        return searchService.search(request).map(this::convertToSearchHitDTO);
+    }
+
+    // Served from memory, for completing as the user types; up to limit suggestions of each type asked for
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggest(@RequestParam(value = "q", required = false) String query,
+                                       @RequestParam(value = "type", defaultValue = "artist,track") List<String> types,
+                                       @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+
+        for (String param : new LinkedHashSet<>(types)) {
+            SearchType type = SearchType.fromParam(param);
+            typeaheadService.suggest(type, query, limit).forEach(suggestion ->
+                    suggestions.add(new SuggestionDTO(type.getParam(), suggestion.id(), suggestion.title())));
+        }
+
+        return suggestions;
+    }
+
+    private SearchHitDTO convertToSearchHitDTO(SearchHit hit) {
+        return new SearchHitDTO(hit.type().getParam(), hit.id(), hit.title(), hit.rank());
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(SearchQueryException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,31 +1,36 @@
 package com.github.haskiro.musicapp.controllers;
 
-import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
 import com.github.haskiro.musicapp.dto.trackDTO.TrackDTO;
-import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.mappers.TrackMapper;
 import com.github.haskiro.musicapp.models.Track;
 import com.github.haskiro.musicapp.services.TrackService;
 import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import com.github.haskiro.musicapp.util.RangeFileSender;
+import com.github.haskiro.musicapp.util.VersionTag;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import com.github.haskiro.musicapp.util.exceptions.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 
@@ -33,18 +38,36 @@ import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 @RequestMapping("/api/tracks")
 public class TrackController {
     private final TrackService trackService;
-    private final ModelMapper modelMapper;
+    private final TrackMapper trackMapper;
+    private final ObjectMapper objectMapper;
+    private final RangeFileSender rangeFileSender;
 
     @Autowired
-    public TrackController(TrackService trackService, ModelMapper modelMapper) {
+    public TrackController(TrackService trackService, TrackMapper trackMapper, ObjectMapper objectMapper,
+                           RangeFileSender rangeFileSender) {
         this.trackService = trackService;
-        this.modelMapper = modelMapper;
+        this.trackMapper = trackMapper;
+        this.objectMapper = objectMapper;
+        this.rangeFileSender = rangeFileSender;
     }
 
     @GetMapping
-    public List<TrackDTO> findAll() {
-        return trackService.findAll()
-                .stream().map(this::converToTrackDTO).collect(Collectors.toList());
+    public CursorPage<TrackDTO> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                    @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                    @RequestParam(value = "title", required = false) String title) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return trackService.findPage(request, title).map(this::converToTrackDTO);
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE)
+    public StreamingResponseBody export() {
+        return outputStream -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+                trackService.forEachTrack(track -> writer.write(trackMapper.toDTO(track)));
+            }
+        };
     }
 
     @PostMapping
@@ -69,8 +92,17 @@ public class TrackController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Ids that are already gone are skipped, so a retried batch succeeds
+    @DeleteMapping
+    public ResponseEntity<HttpStatus> deleteTracks(@RequestParam("ids") List<Integer> ids) {
+        trackService.deleteTracks(ids);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<HttpStatus> updateTrack(@PathVariable("id") int id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @RequestBody @Valid TrackDTO request,
                                                    BindingResult bindingResult) {
         Track track = converToTrack(request);
@@ -82,7 +114,7 @@ public class TrackController {
             throw new TrackCreateUpdateException(errorMessage);
         }
 
-        trackService.updateTrack(track);
+        trackService.updateTrack(track, VersionTag.fromIfMatch(ifMatch));
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
@@ -95,6 +127,24 @@ public class TrackController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Attaches a cover that is already stored, by content hash, without sending it again; 404 if unknown
+    @PutMapping(value = "/{id}/cover", params = "sha256")
+    public ResponseEntity<HttpStatus> attachCover(@PathVariable("id") int id,
+                                                  @RequestParam("sha256") String sha256) {
+        trackService.attachCover(id, sha256);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/audio")
+    public void streamAudio(@PathVariable("id") int id,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        Path audio = trackService.findAudioPath(id);
+
+        rangeFileSender.send(audio, request, response);
+    }
+
     @PostMapping("/{id}/upload-audio")
     public ResponseEntity<HttpStatus> uploadAudio(@PathVariable("id") int id,
                                                   @RequestPart MultipartFile audio) {
@@ -103,12 +153,30 @@ public class TrackController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    @PutMapping(value = "/{id}/audio", consumes = {"audio/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<HttpStatus> putAudio(@PathVariable("id") int id,
+                                               @RequestParam(value = "filename", defaultValue = "") String filename,
+                                               HttpServletRequest request) throws IOException {
+        trackService.setAudio(id, filename, request.getInputStream(), request.getContentLengthLong());
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
+    // Attaches audio that is already stored, by content hash, without sending it again; 404 if unknown
+    @PutMapping(value = "/{id}/audio", params = "sha256")
+    public ResponseEntity<HttpStatus> attachAudio(@PathVariable("id") int id,
+                                                  @RequestParam("sha256") String sha256) {
+        trackService.attachAudio(id, sha256);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
     private TrackDTO converToTrackDTO(Track track) {
-        return modelMapper.map(track, TrackDTO.class);
+        return trackMapper.toDTO(track);
     }
 
     private Track converToTrack(TrackDTO trackDTO) {
-        return modelMapper.map(trackDTO, Track.class);
+        return trackMapper.toEntity(trackDTO);
     }
 
     @ExceptionHandler
@@ -121,6 +189,16 @@ public class TrackController {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(AudioNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Audio not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler
     private ResponseEntity<ErrorResponse> handleException(TrackNotFoundException e) {
         ErrorResponse response = new ErrorResponse(
@@ -151,5 +229,43 @@ public class TrackController {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(ImageNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Image not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(FileTooLargeException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
 
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    private ResponseEntity<ErrorResponse> handleVersionConflict(RuntimeException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Resource has been modified since it was read",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -4,17 +4,25 @@ package com.github.haskiro.musicapp.controllers;
 import com.github.haskiro.musicapp.dto.userDTO.PasswordDTO;
 import com.github.haskiro.musicapp.dto.userDTO.RoleDTO;
 import com.github.haskiro.musicapp.dto.userDTO.UserDTO;
+import com.github.haskiro.musicapp.mappers.UserMapper;
 import com.github.haskiro.musicapp.models.Role;
 import com.github.haskiro.musicapp.models.User;
 import com.github.haskiro.musicapp.services.UserService;
 import com.github.haskiro.musicapp.util.*;
+import com.github.haskiro.musicapp.util.exceptions.AuthenticationBusyException;
+import com.github.haskiro.musicapp.util.exceptions.FileTooLargeException;
 import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
 import com.github.haskiro.musicapp.util.exceptions.UserNotFoundException;
 import com.github.haskiro.musicapp.util.exceptions.UserCreateUpdateException;
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -27,9 +35,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 
@@ -37,32 +43,37 @@ import static com.github.haskiro.musicapp.util.ErrorUtil.returnErrorsAsString;
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final UserValidator userValidator;
-    @Value("${upload.path}")
-    private String uploadPath;
 
     @Autowired
-    public UserController(UserService userService, ModelMapper modelMapper, UserValidator userValidator) {
+    public UserController(UserService userService, UserMapper userMapper, UserValidator userValidator) {
         this.userService = userService;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.userValidator = userValidator;
     }
 
     @GetMapping
-    public List<UserDTO> getUsers() {
-        List<User> users = userService.findAll();
-        return users.stream().map(this::convertToUserDTO)
-                .collect(Collectors.toList());
+    public CursorPage<UserDTO> getUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                    @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                    @RequestParam(value = "email", required = false) String email) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return userService.findPage(request, email).map(this::convertToUserDTO);
     }
 
     public UserDTO convertToUserDTO(User user) {
-        return modelMapper.map(user, UserDTO.class);
+        return userMapper.toDTO(user);
     }
 
     @GetMapping("/{id}")
-    public UserDTO getUser(@PathVariable("id") int id) {
-        return convertToUserDTO(userService.findById(id));
+    public ResponseEntity<UserDTO> getUser(@PathVariable("id") int id) {
+        User user = userService.findById(id);
+
+        return ResponseEntity.ok()
+                .eTag(VersionTag.of(user.getVersion()))
+                .body(convertToUserDTO(user));
     }
 
     @DeleteMapping("/{id}")
@@ -74,6 +85,7 @@ public class UserController {
 
     @PatchMapping("/{id}")
     public ResponseEntity<HttpStatus> updateUser(@PathVariable("id") int id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                  @RequestBody @Valid UserDTO request,
                                                  BindingResult bindingResult) {
         User user = convertToUser(request);
@@ -86,7 +98,7 @@ public class UserController {
             throw new UserCreateUpdateException(errorMessage);
         }
 
-        userService.updateUser(user);
+        userService.updateUser(user, VersionTag.fromIfMatch(ifMatch));
 
         return ResponseEntity.ok(HttpStatus.OK);
     }
@@ -100,6 +112,15 @@ public class UserController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
 
+    // Attaches a photo that is already stored, by content hash, without sending it again; 404 if unknown
+    @PutMapping(value = "/{id}/photo", params = "sha256")
+    public ResponseEntity<HttpStatus> attachPhoto(@PathVariable("id") int id,
+                                                  @RequestParam("sha256") String sha256) {
+        userService.attachPhoto(id, sha256);
+
+        return ResponseEntity.ok(HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}/set-role")
     public ResponseEntity<HttpStatus> setRole(@PathVariable("id") int id,
                                               @RequestBody RoleDTO roleDTO) {
@@ -117,7 +138,7 @@ public class UserController {
     }
 
     public User convertToUser(UserDTO userDTO) {
-        return modelMapper.map(userDTO, User.class);
+        return userMapper.toEntity(userDTO);
     }
 
     @ExceptionHandler
@@ -160,4 +181,55 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(ImageNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Image not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(FileTooLargeException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(AuthenticationBusyException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+
+        return new ResponseEntity<>(response, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    private ResponseEntity<ErrorResponse> handleVersionConflict(RuntimeException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Resource has been modified since it was read",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
 }
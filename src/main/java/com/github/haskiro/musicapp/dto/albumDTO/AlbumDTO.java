@@ -2,6 +2,7 @@ package com.github.haskiro.musicapp.dto.albumDTO;
 
 public class AlbumDTO {
     private int id;
+    private long version;
     private String title;
     private String description;
     private String cover;
@@ -14,6 +15,14 @@ public class AlbumDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -7,6 +7,7 @@ import java.util.Set;
 
 public class AlbumWithTracksDTO {
     private int id;
+    private long version;
     private String title;
     private String description;
     private String cover;
@@ -20,6 +21,14 @@ public class AlbumWithTracksDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -12,6 +12,8 @@ import java.time.LocalDate;
 public class ArtistDTO {
     private int id;
 
+    private long version;
+
     @Size(min = 2, max = 30, message = "Nickname length must be between 2 and 30 characters")
     @NotEmpty(message = "Nickname must not be empty")
     private String nickname;
@@ -39,6 +41,14 @@ public class ArtistDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getNickname() {
         return nickname;
     }
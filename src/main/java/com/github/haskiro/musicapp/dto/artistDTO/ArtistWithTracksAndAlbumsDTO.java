@@ -11,6 +11,8 @@ import java.util.Set;
 public class ArtistWithTracksAndAlbumsDTO {
     private int id;
 
+    private long version;
+
     @Size(min = 2, max = 30, message = "Nickname length must be between 2 and 30 characters")
     @NotEmpty(message = "Nickname must not be empty")
     private String nickname;
@@ -41,6 +43,14 @@ public class ArtistWithTracksAndAlbumsDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getNickname() {
         return nickname;
     }
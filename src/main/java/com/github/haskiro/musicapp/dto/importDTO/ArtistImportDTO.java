@@ -0,0 +1,66 @@
+package com.github.haskiro.musicapp.dto.importDTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * An artist of an imported release, matched to an existing artist by nickname. The remaining fields
+ * are only needed, and only used, when no artist with that nickname exists yet.
+ */
+public class ArtistImportDTO {
+    @Size(min = 2, max = 30, message = "Nickname length must be between 2 and 30 characters")
+    @NotEmpty(message = "Nickname must not be empty")
+    private String nickname;
+
+    @Size(min = 2, max = 30, message = "First name length must be between 2 and 30 characters")
+    private String firstName;
+
+    @Size(min = 2, max = 30, message = "Last name length must be between 2 and 30 characters")
+    private String lastName;
+
+    private LocalDate birthDate;
+
+    private String bio;
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public void setNickname(String nickname) {
+        this.nickname = nickname;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public void setBirthDate(LocalDate birthDate) {
+        this.birthDate = birthDate;
+    }
+
+    public String getBio() {
+        return bio;
+    }
+
+    public void setBio(String bio) {
+        this.bio = bio;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.haskiro.musicapp.dto.importDTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResultDTO {
+    public static final String CREATED = "created";
+    public static final String FAILED = "failed";
+
+    private int line;
+    private String ref;
+    private String status;
+    private Integer albumId;
+    private Integer tracks;
+    private String error;
+
+    public static ImportResultDTO created(int line, String ref, int albumId, int tracks) {
+        ImportResultDTO result = new ImportResultDTO();
+        result.setLine(line);
+        result.setRef(ref);
+        result.setStatus(CREATED);
+        result.setAlbumId(albumId);
+        result.setTracks(tracks);
+
+        return result;
+    }
+
+    public static ImportResultDTO failed(int line, String ref, String error) {
+        ImportResultDTO result = new ImportResultDTO();
+        result.setLine(line);
+        result.setRef(ref);
+        result.setStatus(FAILED);
+        result.setError(error);
+
+        return result;
+    }
+
+    @JsonIgnore
+    public boolean isCreated() {
+        return CREATED.equals(status);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public void setRef(String ref) {
+        this.ref = ref;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getAlbumId() {
+        return albumId;
+    }
+
+    public void setAlbumId(Integer albumId) {
+        this.albumId = albumId;
+    }
+
+    public Integer getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(Integer tracks) {
+        this.tracks = tracks;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
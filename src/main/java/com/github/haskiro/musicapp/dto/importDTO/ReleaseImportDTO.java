@@ -0,0 +1,67 @@
+package com.github.haskiro.musicapp.dto.importDTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * An album with its artists and tracks, created together by the bulk import.
+ */
+public class ReleaseImportDTO {
+    // Client's own identifier, echoed back in the result
+    private String ref;
+
+    @NotEmpty(message = "Title must not be empty")
+    private String title;
+
+    private String description;
+
+    @Valid
+    @NotEmpty(message = "Artists must not be empty")
+    private List<ArtistImportDTO> artists;
+
+    @Valid
+    @NotEmpty(message = "Tracks must not be empty")
+    private List<TrackImportDTO> tracks;
+
+    public String getRef() {
+        return ref;
+    }
+
+    public void setRef(String ref) {
+        this.ref = ref;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<ArtistImportDTO> getArtists() {
+        return artists;
+    }
+
+    public void setArtists(List<ArtistImportDTO> artists) {
+        this.artists = artists;
+    }
+
+    public List<TrackImportDTO> getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(List<TrackImportDTO> tracks) {
+        this.tracks = tracks;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.haskiro.musicapp.dto.importDTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class TrackImportDTO {
+    @Size(min = 2, max = 30, message = "Title length must be between 2 and 30 characters")
+    @NotEmpty(message = "Title must not be empty")
+    private String title;
+
+    @NotNull
+    private LocalDate releasedAt;
+
+    // Nicknames from the release's artists; the track is credited to all of them when empty
+    private List<String> artists;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDate getReleasedAt() {
+        return releasedAt;
+    }
+
+    public void setReleasedAt(LocalDate releasedAt) {
+        this.releasedAt = releasedAt;
+    }
+
+    public List<String> getArtists() {
+        return artists;
+    }
+
+    public void setArtists(List<String> artists) {
+        this.artists = artists;
+    }
+}
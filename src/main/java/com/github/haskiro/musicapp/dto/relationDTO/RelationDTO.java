@@ -0,0 +1,21 @@
+package com.github.haskiro.musicapp.dto.relationDTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class RelationDTO {
+    @NotEmpty(message = "Ids must not be empty")
+    @Size(max = 1000, message = "At most 1000 ids can be given at once")
+    private List<@NotNull(message = "Ids must not contain null") Integer> ids;
+
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Integer> ids) {
+        this.ids = ids;
+    }
+}
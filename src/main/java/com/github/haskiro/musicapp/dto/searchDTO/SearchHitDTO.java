@@ -0,0 +1,50 @@
+package com.github.haskiro.musicapp.dto.searchDTO;
+
+public class SearchHitDTO {
+    private String type;
+    private int id;
+    private String title;
+    private double rank;
+
+    public SearchHitDTO() {
+    }
+
+    public SearchHitDTO(String type, int id, String title, double rank) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.rank = rank;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public void setRank(double rank) {
+        this.rank = rank;
+    }
+}
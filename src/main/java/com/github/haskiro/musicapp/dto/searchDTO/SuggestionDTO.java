@@ -0,0 +1,40 @@
+package com.github.haskiro.musicapp.dto.searchDTO;
+
+public class SuggestionDTO {
+    private String type;
+    private int id;
+    private String title;
+
+    public SuggestionDTO() {
+    }
+
+    public SuggestionDTO(String type, int id, String title) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.haskiro.musicapp.dto.trackDTO;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -11,12 +12,16 @@ import java.time.OffsetDateTime;
 public class TrackDTO {
     private int id;
 
+    private long version;
+
     @Size(min = 2, max = 30, message = "Title length must be between 2 and 30 characters")
     @NotEmpty(message = "Title must not be empty")
     private String title;
 
     private String cover;
 
+    // Set by the upload endpoints only, never from a request body
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String audioFile;
 
     @NotNull
@@ -30,6 +35,14 @@ public class TrackDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -13,6 +13,8 @@ import java.time.LocalDate;
 public class UserDTO {
     private int id;
 
+    private long version;
+
     @Email(message = "Email must match patter email@example.com")
     @NotEmpty(message = "Email must not be empty")
     private String email;
@@ -39,6 +41,14 @@ public class UserDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -0,0 +1,62 @@
+package com.github.haskiro.musicapp.mappers;
+
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumDTO;
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.models.Album;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+public class AlbumMapper {
+    private final TrackMapper trackMapper;
+
+    @Autowired
+    public AlbumMapper(TrackMapper trackMapper) {
+        this.trackMapper = trackMapper;
+    }
+
+    public AlbumDTO toDTO(Album album) {
+        AlbumDTO dto = new AlbumDTO();
+        dto.setId(album.getId());
+        dto.setVersion(album.getVersion());
+        dto.setTitle(album.getTitle());
+        dto.setDescription(album.getDescription());
+        dto.setCover(album.getCover());
+
+        return dto;
+    }
+
+    public Set<AlbumDTO> toDTOs(Set<Album> albums) {
+        if (albums == null)
+            return null;
+
+        Set<AlbumDTO> dtos = new HashSet<>((int) (albums.size() / 0.75f) + 1);
+        for (Album album : albums) {
+            dtos.add(toDTO(album));
+        }
+
+        return dtos;
+    }
+
+    public AlbumWithTracksDTO toWithTracksDTO(Album album) {
+        AlbumWithTracksDTO dto = new AlbumWithTracksDTO();
+        dto.setId(album.getId());
+        dto.setVersion(album.getVersion());
+        dto.setTitle(album.getTitle());
+        dto.setDescription(album.getDescription());
+        dto.setCover(album.getCover());
+        dto.setTracks(trackMapper.toDTOs(album.getTrackList()));
+
+        return dto;
+    }
+
+    public Album toEntity(AlbumDTO dto) {
+        Album album = new Album(dto.getTitle(), dto.getDescription(), dto.getCover());
+        album.setId(dto.getId());
+
+        return album;
+    }
+}
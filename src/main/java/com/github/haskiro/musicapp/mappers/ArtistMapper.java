@@ -0,0 +1,63 @@
+package com.github.haskiro.musicapp.mappers;
+
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistWithTracksAndAlbumsDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.CreateArtistDTO;
+import com.github.haskiro.musicapp.models.Artist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ArtistMapper {
+    private final TrackMapper trackMapper;
+    private final AlbumMapper albumMapper;
+
+    @Autowired
+    public ArtistMapper(TrackMapper trackMapper, AlbumMapper albumMapper) {
+        this.trackMapper = trackMapper;
+        this.albumMapper = albumMapper;
+    }
+
+    public ArtistDTO toDTO(Artist artist) {
+        ArtistDTO dto = new ArtistDTO();
+        dto.setId(artist.getId());
+        dto.setVersion(artist.getVersion());
+        dto.setNickname(artist.getNickname());
+        dto.setFirstName(artist.getFirstName());
+        dto.setLastName(artist.getLastName());
+        dto.setBirthDate(artist.getBirthDate());
+        dto.setPhoto(artist.getPhoto());
+        dto.setBio(artist.getBio());
+
+        return dto;
+    }
+
+    public ArtistWithTracksAndAlbumsDTO toWithTracksAndAlbumsDTO(Artist artist) {
+        ArtistWithTracksAndAlbumsDTO dto = new ArtistWithTracksAndAlbumsDTO();
+        dto.setId(artist.getId());
+        dto.setVersion(artist.getVersion());
+        dto.setNickname(artist.getNickname());
+        dto.setFirstName(artist.getFirstName());
+        dto.setLastName(artist.getLastName());
+        dto.setBirthDate(artist.getBirthDate());
+        dto.setPhoto(artist.getPhoto());
+        dto.setBio(artist.getBio());
+        dto.setTracks(trackMapper.toDTOs(artist.getTrackList()));
+        dto.setAlbums(albumMapper.toDTOs(artist.getAlbumList()));
+
+        return dto;
+    }
+
+    public Artist toEntity(ArtistDTO dto) {
+        Artist artist = new Artist(dto.getNickname(), dto.getFirstName(), dto.getLastName(),
+                dto.getBirthDate(), dto.getPhoto(), dto.getBio(), null);
+        artist.setId(dto.getId());
+
+        return artist;
+    }
+
+    public Artist toEntity(CreateArtistDTO dto) {
+        return new Artist(dto.getNickname(), dto.getFirstName(), dto.getLastName(),
+                dto.getBirthDate(), null, dto.getBio(), null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.haskiro.musicapp.mappers;
+
+import com.github.haskiro.musicapp.dto.trackDTO.TrackDTO;
+import com.github.haskiro.musicapp.models.Track;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+public class TrackMapper {
+
+    public TrackDTO toDTO(Track track) {
+        TrackDTO dto = new TrackDTO();
+        dto.setId(track.getId());
+        dto.setVersion(track.getVersion());
+        dto.setTitle(track.getTitle());
+        dto.setCover(track.getCover());
+        dto.setAudioFile(track.getAudioFile());
+        dto.setReleasedAt(track.getReleasedAt());
+
+        return dto;
+    }
+
+    public Set<TrackDTO> toDTOs(Set<Track> tracks) {
+        if (tracks == null)
+            return null;
+
+        Set<TrackDTO> dtos = new HashSet<>((int) (tracks.size() / 0.75f) + 1);
+        for (Track track : tracks) {
+            dtos.add(toDTO(track));
+        }
+
+        return dtos;
+    }
+
+    public Track toEntity(TrackDTO dto) {
+        // The audio file is only ever set by the upload endpoints
+        Track track = new Track(dto.getTitle(), dto.getCover(), null, dto.getReleasedAt());
+        track.setId(dto.getId());
+
+        return track;
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.haskiro.musicapp.mappers;
+
+import com.github.haskiro.musicapp.dto.userDTO.RegistrationDTO;
+import com.github.haskiro.musicapp.dto.userDTO.UserDTO;
+import com.github.haskiro.musicapp.models.User;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserMapper {
+
+    public UserDTO toDTO(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setVersion(user.getVersion());
+        dto.setEmail(user.getEmail());
+        dto.setFirstName(user.getFirstName());
+        dto.setLastName(user.getLastName());
+        dto.setPhoto(user.getPhoto());
+        dto.setBio(user.getBio());
+        dto.setBirthDate(user.getBirthDate());
+
+        return dto;
+    }
+
+    public User toEntity(UserDTO dto) {
+        User user = new User(dto.getEmail(), dto.getFirstName(), dto.getLastName(),
+                dto.getPhoto(), dto.getBio(), null);
+        user.setId(dto.getId());
+        user.setBirthDate(dto.getBirthDate());
+
+        return user;
+    }
+
+    public User toEntity(RegistrationDTO dto) {
+        return new User(dto.getEmail(), dto.getFirstName(), dto.getLastName(),
+                null, null, dto.getPassword());
+    }
+}
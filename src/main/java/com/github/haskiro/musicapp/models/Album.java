@@ -1,6 +1,8 @@
 package com.github.haskiro.musicapp.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,14 +11,21 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "album")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "album")
+@Table(name = "album", indexes = @Index(name = "album_created_at_id_idx", columnList = "created_at, id"))
 public class Album {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "album_id_seq")
+    @SequenceGenerator(name = "album_id_seq", sequenceName = "album_id_seq", allocationSize = 50)
     @Column(name = "id")
     private int id;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "title")
     @NotEmpty(message = "Title must not be empty")
     private String title;
@@ -35,12 +44,14 @@ public class Album {
     @JoinTable(name = "album_track",
     joinColumns = @JoinColumn(name = "album_id", referencedColumnName = "id"),
     inverseJoinColumns = @JoinColumn(name = "track_id", referencedColumnName = "id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "album.tracks")
     Set<Track> trackList;
 
     @ManyToMany
     @JoinTable(name = "album_artist",
             joinColumns = @JoinColumn(name = "album_id", referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name = "artist_id", referencedColumnName = "id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "album.artists")
     Set<Artist> artistList;
 
     public Album() {
@@ -60,6 +71,14 @@ public class Album {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
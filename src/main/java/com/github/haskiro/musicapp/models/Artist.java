@@ -1,6 +1,8 @@
 package com.github.haskiro.musicapp.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -11,14 +13,24 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "artist")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist")
+@Table(name = "artist", indexes = {
+        @Index(name = "artist_created_at_id_idx", columnList = "created_at, id"),
+        @Index(name = "artist_nickname_idx", columnList = "nickname")
+})
 public class Artist {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artist_id_seq")
+    @SequenceGenerator(name = "artist_id_seq", sequenceName = "artist_id_seq", allocationSize = 50)
     @Column(name = "id")
     private int id;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "nickname")
     @Size(min = 2, max = 30, message = "Nickname length must be between 2 and 30 characters")
     @NotEmpty(message = "Nickname must not be empty")
@@ -50,9 +62,11 @@ public class Artist {
     private OffsetDateTime createdAt;
 
     @ManyToMany(mappedBy = "artistList")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist.tracks")
     Set<Track> trackList;
 
-    @ManyToMany(mappedBy = "albumList")
+    @ManyToMany(mappedBy = "artistList")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist.albums")
     Set<Album> albumList;
 
     public Artist(String nickname, String firstName, String lastName, LocalDate birthDate, String photo, String bio, OffsetDateTime createdAt) {
@@ -76,6 +90,14 @@ public class Artist {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getNickname() {
         return nickname;
     }
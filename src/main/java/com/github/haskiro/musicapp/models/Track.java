@@ -1,6 +1,8 @@
 package com.github.haskiro.musicapp.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 
@@ -10,14 +12,21 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "track")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "track")
+@Table(name = "track", indexes = @Index(name = "track_created_at_id_idx", columnList = "created_at, id"))
 public class Track {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "track_id_seq")
+    @SequenceGenerator(name = "track_id_seq", sequenceName = "track_id_seq", allocationSize = 50)
     @Column(name = "id")
     private int id;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "title")
     @Size(min = 2, max = 30, message = "Title length must be between 2 and 30 characters")
     @NotEmpty(message = "Title must not be empty")
@@ -43,9 +52,11 @@ public class Track {
             joinColumns = @JoinColumn(name = "track_id"),
             inverseJoinColumns = @JoinColumn(name = "artist_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "track.artists")
     Set<Artist> artistList;
 
-    @ManyToMany(mappedBy = "albumList")
+    @ManyToMany(mappedBy = "trackList")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "track.albums")
     Set<Album> albumList;
 
     public Track(String title, String cover, String audioFile, LocalDate releasedAt) {
@@ -66,6 +77,14 @@ public class Track {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
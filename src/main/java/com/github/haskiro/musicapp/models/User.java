@@ -10,7 +10,7 @@ import java.time.OffsetDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "\"user\"")
+@Table(name = "\"user\"", indexes = @Index(name = "user_created_at_id_idx", columnList = "created_at, id"))
 public class User {
 
     @Id
@@ -18,6 +18,10 @@ public class User {
     @Column(name = "id")
     private int id;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "email", unique = true)
     @Email(message = "Email must match patter email@example.com")
     @NotEmpty(message = "Email must not be empty")
@@ -73,6 +77,14 @@ public class User {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -1,10 +1,78 @@
 package com.github.haskiro.musicapp.repositories;
 
 import com.github.haskiro.musicapp.models.Album;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface AlbumRepository extends JpaRepository<Album, Integer> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Album a order by a.id")
+    Stream<Album> streamAll();
+
+    @Query("select a from Album a left join fetch a.trackList where a.id = :id")
+    Optional<Album> findByIdWithTracks(@Param("id") int id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Album a where a.id > :id " +
+            "and (:title is null or lower(a.title) like :title escape '\\') order by a.id asc")
+    List<Album> findPageByIdAsc(@Param("id") int id, @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Album a where a.id < :id " +
+            "and (:title is null or lower(a.title) like :title escape '\\') order by a.id desc")
+    List<Album> findPageByIdDesc(@Param("id") int id, @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Album a where (a.createdAt > :createdAt or (a.createdAt = :createdAt and a.id > :id)) " +
+            "and (:title is null or lower(a.title) like :title escape '\\') order by a.createdAt asc, a.id asc")
+    List<Album> findPageByCreatedAtAsc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Album a where (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) " +
+            "and (:title is null or lower(a.title) like :title escape '\\') order by a.createdAt desc, a.id desc")
+    List<Album> findPageByCreatedAtDesc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("title") String title, Pageable pageable);
+
+    // Same approach as ArtistRepository.addTracks: one statement, idempotent, no collection loaded
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "album_track"))
+    @Query(value = "insert into album_track (album_id, track_id) select a.id, t.id from album a, track t " +
+            "where a.id = :albumId and t.id in (:trackIds) on conflict do nothing", nativeQuery = true)
+    int addTracks(@Param("albumId") int albumId, @Param("trackIds") Collection<Integer> trackIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "album_track"))
+    @Query(value = "delete from album_track where album_id = :albumId and track_id in (:trackIds)",
+            nativeQuery = true)
+    int removeTracks(@Param("albumId") int albumId, @Param("trackIds") Collection<Integer> trackIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "album_artist"))
+    @Query(value = "insert into album_artist (album_id, artist_id) select al.id, ar.id from album al, artist ar " +
+            "where al.id = :albumId and ar.id in (:artistIds) on conflict do nothing", nativeQuery = true)
+    int addArtists(@Param("albumId") int albumId, @Param("artistIds") Collection<Integer> artistIds);
 
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "album_artist"))
+    @Query(value = "delete from album_artist where album_id = :albumId and artist_id in (:artistIds)",
+            nativeQuery = true)
+    int removeArtists(@Param("albumId") int albumId, @Param("artistIds") Collection<Integer> artistIds);
 }
@@ -1,9 +1,96 @@
 package com.github.haskiro.musicapp.repositories;
 
 import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ArtistRepository extends JpaRepository<Artist, Integer> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Artist a order by a.id")
+    Stream<Artist> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.github.haskiro.musicapp.util.search.Suggestion(a.id, a.nickname) from Artist a")
+    Stream<Suggestion> streamSuggestions();
+
+    long countByIdIn(Collection<Integer> ids);
+
+    // Nickname is the natural key for imports; should it repeat, the oldest artist comes first
+    List<Artist> findByNicknameInOrderByIdAsc(Collection<String> nicknames);
+
+    // Collections are fetched by separate queries to avoid a tracks x albums cartesian product
+    @Query("select a from Artist a left join fetch a.trackList where a.id = :id")
+    Optional<Artist> findByIdWithTracks(@Param("id") int id);
+
+    @Query("select a from Artist a left join fetch a.albumList where a.id = :id")
+    Optional<Artist> findByIdWithAlbums(@Param("id") int id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Artist a where a.id > :id " +
+            "and (:nickname is null or lower(a.nickname) like :nickname escape '\\') order by a.id asc")
+    List<Artist> findPageByIdAsc(@Param("id") int id, @Param("nickname") String nickname, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Artist a where a.id < :id " +
+            "and (:nickname is null or lower(a.nickname) like :nickname escape '\\') order by a.id desc")
+    List<Artist> findPageByIdDesc(@Param("id") int id, @Param("nickname") String nickname, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Artist a where (a.createdAt > :createdAt or (a.createdAt = :createdAt and a.id > :id)) " +
+            "and (:nickname is null or lower(a.nickname) like :nickname escape '\\') order by a.createdAt asc, a.id asc")
+    List<Artist> findPageByCreatedAtAsc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("nickname") String nickname, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a from Artist a where (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) " +
+            "and (:nickname is null or lower(a.nickname) like :nickname escape '\\') order by a.createdAt desc, a.id desc")
+    List<Artist> findPageByCreatedAtDesc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("nickname") String nickname, Pageable pageable);
+
+    // Single-statement update for a client that knows the version; 0 means missing or modified meanwhile
+    @Modifying(flushAutomatically = true)
+    @Query("update Artist a set a.nickname = :#{#artist.nickname}, a.firstName = :#{#artist.firstName}, " +
+            "a.lastName = :#{#artist.lastName}, a.birthDate = :#{#artist.birthDate}, a.photo = :#{#artist.photo}, " +
+            "a.bio = :#{#artist.bio}, " +
+            "a.version = a.version + 1 where a.id = :#{#artist.id} and a.version = :version")
+    int updateIfVersion(@Param("artist") Artist artist, @Param("version") long version);
+
+    // Join rows are written directly, without loading either side's collection; missing tracks are skipped,
+    // and so are pairs already linked, by the join table's primary key, even by a concurrent add.
+    // The space hint keeps second-level cache invalidation to artist_track.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "artist_track"))
+    @Query(value = "insert into artist_track (artist_id, track_id) select a.id, t.id from artist a, track t " +
+            "where a.id = :artistId and t.id in (:trackIds) on conflict do nothing", nativeQuery = true)
+    int addTracks(@Param("artistId") int artistId, @Param("trackIds") Collection<Integer> trackIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "artist_track"))
+    @Query(value = "delete from artist_track where artist_id = :artistId and track_id in (:trackIds)",
+            nativeQuery = true)
+    int removeTracks(@Param("artistId") int artistId, @Param("trackIds") Collection<Integer> trackIds);
+
+    // Hibernate deletes the artist_track and album_artist rows first, one statement per table,
+    // so neither side of the relations is loaded
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Artist a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
 }
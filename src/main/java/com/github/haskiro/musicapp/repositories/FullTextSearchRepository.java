@@ -0,0 +1,63 @@
+package com.github.haskiro.musicapp.repositories;
+
+import com.github.haskiro.musicapp.util.search.SearchHit;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+import com.github.haskiro.musicapp.util.search.SearchType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL full-text search. Each table is matched through a GIN index on a weighted {@code tsvector}
+ * expression (names weigh A, artist first and last names B, bios and descriptions D), and the hits of
+ * all tables are ranked together with {@code ts_rank_cd}.
+ * <p>
+ * The {@code simple} configuration is used since titles and names are in many languages: words are
+ * lower-cased but not stemmed.
+ */
+public class FullTextSearchRepository implements SearchRepository {
+    // Must stay the same as the index expressions in db/catalog-search.sql, or the indexes are not used
+    static final String TRACK_DOCUMENT = "setweight(to_tsvector('simple', coalesce(title, '')), 'A')";
+    static final String ARTIST_DOCUMENT = "setweight(to_tsvector('simple', coalesce(nickname, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(first_name, '') || ' ' || coalesce(last_name, '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(bio, '')), 'D')";
+    static final String ALBUM_DOCUMENT = "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(description, '')), 'D')";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FullTextSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SearchHit> search(SearchRequest request) {
+        List<String> branches = new ArrayList<>();
+        if (request.getTypes().contains(SearchType.TRACK))
+            branches.add(branch(SearchType.TRACK, "track", "title", TRACK_DOCUMENT));
+        if (request.getTypes().contains(SearchType.ARTIST))
+            branches.add(branch(SearchType.ARTIST, "artist", "nickname", ARTIST_DOCUMENT));
+        if (request.getTypes().contains(SearchType.ALBUM))
+            branches.add(branch(SearchType.ALBUM, "album", "title", ALBUM_DOCUMENT));
+
+        String sql = "select type, id, title, rank from (" + String.join(" union all ", branches) + ") hits " +
+                "order by rank desc, type, id limit :limit offset :offset";
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("query", request.toTsQuery())
+                .addValue("limit", request.getLimit() + 1)
+                .addValue("offset", request.getOffset());
+
+        return jdbcTemplate.query(sql, parameters, (rs, rowNum) -> new SearchHit(
+                SearchType.fromParam(rs.getString("type")), rs.getInt("id"), rs.getString("title"),
+                rs.getDouble("rank")));
+    }
+
+    private static String branch(SearchType type, String table, String titleColumn, String document) {
+        return "select '" + type.getParam() + "' as type, id, " + titleColumn + " as title, " +
+                "ts_rank_cd(" + document + ", to_tsquery('simple', :query)) as rank " +
+                "from " + table + " where " + document + " @@ to_tsquery('simple', :query)";
+    }
+}
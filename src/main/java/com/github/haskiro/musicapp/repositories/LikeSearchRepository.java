@@ -0,0 +1,80 @@
+package com.github.haskiro.musicapp.repositories;
+
+import com.github.haskiro.musicapp.util.search.SearchHit;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+import com.github.haskiro.musicapp.util.search.SearchType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Portable search for databases without full-text support, such as the in-memory database used by the
+ * tests. Every term must occur in one of the searched columns; there is no index, so each search scans
+ * the tables.
+ * <p>
+ * The rank only looks at the name an entry is listed under: 1 if it equals the query, 0.75 if it starts
+ * with it, 0.5 if it contains every term, otherwise (the terms are found in other columns) 0.25.
+ */
+public class LikeSearchRepository implements SearchRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LikeSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SearchHit> search(SearchRequest request) {
+        List<String> terms = request.getTerms();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("exact", String.join(" ", terms))
+                .addValue("prefix", String.join(" ", terms) + "%")
+                .addValue("limit", request.getLimit() + 1)
+                .addValue("offset", request.getOffset());
+        // Terms hold only letters and digits, so they need no escaping in a LIKE pattern
+        for (int i = 0; i < terms.size(); i++) {
+            parameters.addValue("t" + i, "%" + terms.get(i) + "%");
+        }
+
+        List<String> branches = new ArrayList<>();
+        if (request.getTypes().contains(SearchType.TRACK))
+            branches.add(branch(SearchType.TRACK, "track", "title", List.of(), terms.size()));
+        if (request.getTypes().contains(SearchType.ARTIST))
+            branches.add(branch(SearchType.ARTIST, "artist", "nickname",
+                    List.of("first_name", "last_name", "bio"), terms.size()));
+        if (request.getTypes().contains(SearchType.ALBUM))
+            branches.add(branch(SearchType.ALBUM, "album", "title", List.of("description"), terms.size()));
+
+        String sql = "select type, id, title, rank from (" + String.join(" union all ", branches) + ") hits " +
+                "order by rank desc, type, id limit :limit offset :offset";
+
+        return jdbcTemplate.query(sql, parameters, (rs, rowNum) -> new SearchHit(
+                SearchType.fromParam(rs.getString("type")), rs.getInt("id"), rs.getString("title"),
+                rs.getDouble("rank")));
+    }
+
+    private static String branch(SearchType type, String table, String titleColumn, List<String> otherColumns,
+                                 int termCount) {
+        String title = "lower(" + titleColumn + ")";
+        List<String> titleMatches = new ArrayList<>();
+        List<String> rowMatches = new ArrayList<>();
+
+        for (int i = 0; i < termCount; i++) {
+            List<String> columnMatches = new ArrayList<>();
+            columnMatches.add(title + " like :t" + i);
+            for (String column : otherColumns) {
+                columnMatches.add("lower(" + column + ") like :t" + i);
+            }
+
+            titleMatches.add(title + " like :t" + i);
+            rowMatches.add("(" + String.join(" or ", columnMatches) + ")");
+        }
+
+        return "select '" + type.getParam() + "' as type, id, " + titleColumn + " as title, " +
+                "case when " + title + " = :exact then 1.0 " +
+                "when " + title + " like :prefix then 0.75 " +
+                "when " + String.join(" and ", titleMatches) + " then 0.5 else 0.25 end as rank " +
+                "from " + table + " where " + String.join(" and ", rowMatches);
+    }
+}
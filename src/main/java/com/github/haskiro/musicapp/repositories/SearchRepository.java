@@ -0,0 +1,17 @@
+package com.github.haskiro.musicapp.repositories;
+
+import com.github.haskiro.musicapp.util.search.SearchHit;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+
+import java.util.List;
+
+/**
+ * Catalog search over track titles, artist names and bios, and album titles and descriptions.
+ * The implementation depends on the database, see {@code SearchConfig}.
+ */
+public interface SearchRepository {
+    /**
+     * Returns up to limit + 1 hits ordered by rank, then type and id, starting at the request's offset.
+     */
+    List<SearchHit> search(SearchRequest request);
+}
@@ -1,9 +1,70 @@
 package com.github.haskiro.musicapp.repositories;
 
 import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface TrackRepository extends JpaRepository<Track, Integer> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Track t order by t.id")
+    Stream<Track> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.github.haskiro.musicapp.util.search.Suggestion(t.id, t.title) from Track t")
+    Stream<Suggestion> streamSuggestions();
+
+    long countByIdIn(Collection<Integer> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Track t where t.id > :id " +
+            "and (:title is null or lower(t.title) like :title escape '\\') order by t.id asc")
+    List<Track> findPageByIdAsc(@Param("id") int id, @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Track t where t.id < :id " +
+            "and (:title is null or lower(t.title) like :title escape '\\') order by t.id desc")
+    List<Track> findPageByIdDesc(@Param("id") int id, @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Track t where (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id)) " +
+            "and (:title is null or lower(t.title) like :title escape '\\') order by t.createdAt asc, t.id asc")
+    List<Track> findPageByCreatedAtAsc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("title") String title, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Track t where (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id)) " +
+            "and (:title is null or lower(t.title) like :title escape '\\') order by t.createdAt desc, t.id desc")
+    List<Track> findPageByCreatedAtDesc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("title") String title, Pageable pageable);
+
+    // Single-statement update for a client that knows the version; 0 means missing or modified meanwhile.
+    // The audio file is left alone, it is only set by the upload endpoints
+    @Modifying(flushAutomatically = true)
+    @Query("update Track t set t.title = :#{#track.title}, t.cover = :#{#track.cover}, " +
+            "t.releasedAt = :#{#track.releasedAt}, " +
+            "t.version = t.version + 1 where t.id = :#{#track.id} and t.version = :version")
+    int updateIfVersion(@Param("track") Track track, @Param("version") long version);
+
+    // Hibernate deletes the artist_track and album_track rows first, one statement per table,
+    // so neither side of the relations is loaded
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Track t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -1,12 +1,48 @@
 package com.github.haskiro.musicapp.repositories;
 
 import com.github.haskiro.musicapp.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
+
+    @Query("select u from User u where u.id > :id " +
+            "and (:email is null or lower(u.email) like :email escape '\\') order by u.id asc")
+    List<User> findPageByIdAsc(@Param("id") int id, @Param("email") String email, Pageable pageable);
+
+    @Query("select u from User u where u.id < :id " +
+            "and (:email is null or lower(u.email) like :email escape '\\') order by u.id desc")
+    List<User> findPageByIdDesc(@Param("id") int id, @Param("email") String email, Pageable pageable);
+
+    @Query("select u from User u where (u.createdAt > :createdAt or (u.createdAt = :createdAt and u.id > :id)) " +
+            "and (:email is null or lower(u.email) like :email escape '\\') order by u.createdAt asc, u.id asc")
+    List<User> findPageByCreatedAtAsc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("email") String email, Pageable pageable);
+
+    @Query("select u from User u where (u.createdAt < :createdAt or (u.createdAt = :createdAt and u.id < :id)) " +
+            "and (:email is null or lower(u.email) like :email escape '\\') order by u.createdAt desc, u.id desc")
+    List<User> findPageByCreatedAtDesc(@Param("createdAt") OffsetDateTime createdAt, @Param("id") int id,
+            @Param("email") String email, Pageable pageable);
+
+    // The email being replaced by a conditional update, read under the same version check
+    @Query("select u.email from User u where u.id = :id and u.version = :version")
+    Optional<String> findEmailIfVersion(@Param("id") int id, @Param("version") long version);
+
+    // Single-statement update for a client that knows the version; 0 means missing or modified meanwhile
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.email = :#{#user.email}, u.firstName = :#{#user.firstName}, " +
+            "u.lastName = :#{#user.lastName}, u.photo = :#{#user.photo}, u.bio = :#{#user.bio}, " +
+            "u.birthDate = :#{#user.birthDate}, " +
+            "u.version = u.version + 1 where u.id = :#{#user.id} and u.version = :version")
+    int updateIfVersion(@Param("user") User user, @Param("version") long version);
 }
@@ -0,0 +1,46 @@
+package com.github.haskiro.musicapp.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands {@code encode} and {@code matches} to the {@link PasswordHashingExecutor}. The {@link PasswordEncoder}
+ * methods wait for the result; {@link #encodeAsync} and {@link #matchesAsync} return it as a future, so a
+ * request thread can be released while the hash runs. Only the hash runs on the pool: lookups, inserts and
+ * commits around it stay with the caller, so hashing threads never hold a JDBC connection. When the queue
+ * is full every method throws {@link com.github.haskiro.musicapp.util.exceptions.AuthenticationBusyException}.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.call("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.call("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return executor.submit("encode", () -> delegate.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return executor.submit("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only inspects the stored hash
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
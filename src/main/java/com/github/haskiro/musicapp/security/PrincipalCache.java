@@ -0,0 +1,117 @@
+package com.github.haskiro.musicapp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, TTL-evicted cache of authenticated principals keyed by email.
+ * <p>
+ * Besides cached principals it remembers when a user was invalidated, so that
+ * role claims of tokens issued before a role change or deletion are no longer
+ * trusted and the principal is reloaded from the database instead.
+ */
+@Component
+public class PrincipalCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long revocationTtlMillis;
+
+    private final Map<String, Entry> principals;
+    private final Map<String, Long> revocations;
+
+    // Tokens issued before this moment are never trusted; raised when a revocation is evicted for capacity
+    private long revokedBefore = 0;
+
+    public PrincipalCache(@Value("${app.jwt.principal-cache.size:10000}") int maxSize,
+                          @Value("${app.jwt.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${app.jwt.expiration:24m}") Duration tokenLifetime) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.revocationTtlMillis = tokenLifetime.toMillis();
+        this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+        this.revocations = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= PrincipalCache.this.maxSize)
+                    return false;
+
+                revokedBefore = Math.max(revokedBefore, eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public synchronized UserDetails get(String email) {
+        Entry entry = principals.get(email);
+
+        if (entry == null)
+            return null;
+
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            principals.remove(email);
+            return null;
+        }
+
+        return entry.principal;
+    }
+
+    public synchronized void put(String email, UserDetails principal) {
+        principals.put(email, new Entry(principal, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void invalidate(String email) {
+        revoke(email);
+
+        // A concurrent request may reload the old state before the change is committed, evict it once more
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revoke(email);
+                }
+            });
+        }
+    }
+
+    private synchronized void revoke(String email) {
+        principals.remove(email);
+        revocations.remove(email);
+        revocations.put(email, System.currentTimeMillis());
+    }
+
+    /**
+     * Tells whether claims of a token issued at {@code issuedAt} may no longer be trusted for this user.
+     */
+    public synchronized boolean isRevoked(String email, Date issuedAt) {
+        if (issuedAt == null || issuedAt.getTime() <= revokedBefore)
+            return true;
+
+        Long revokedAt = revocations.get(email);
+
+        if (revokedAt == null)
+            return false;
+
+        if (revokedAt + revocationTtlMillis < System.currentTimeMillis()) {
+            revocations.remove(email);
+            return false;
+        }
+
+        return issuedAt.getTime() <= revokedAt;
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
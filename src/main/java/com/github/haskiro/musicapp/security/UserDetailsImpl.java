@@ -1,5 +1,6 @@
 package com.github.haskiro.musicapp.security;
 
+import com.github.haskiro.musicapp.models.Role;
 import com.github.haskiro.musicapp.models.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +16,18 @@ public class UserDetailsImpl implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * Principal without credentials or profile data, cheap to keep in memory between requests.
+     */
+    public static UserDetailsImpl of(int id, String email, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+
+        return new UserDetailsImpl(user);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
 
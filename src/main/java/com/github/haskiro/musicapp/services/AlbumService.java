@@ -1,93 +1,182 @@
 package com.github.haskiro.musicapp.services;
 
 import com.github.haskiro.musicapp.models.Album;
-import com.github.haskiro.musicapp.models.Artist;
-import com.github.haskiro.musicapp.models.Track;
 import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import com.github.haskiro.musicapp.util.exceptions.AlbumNotFoundException;
-import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import com.github.haskiro.musicapp.util.storage.StoredFile;
+import com.github.haskiro.musicapp.util.cache.CatalogSection;
+import com.github.haskiro.musicapp.util.cache.CollectionCache;
+import com.github.haskiro.musicapp.util.cache.ResponseCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 @Transactional(readOnly = true)
 public class AlbumService {
-    @Value("${upload.path}")
-    private String uploadPath;
-    
     private final AlbumRepository albumRepository;
     private final TrackService trackService;
     private final ArtistService artistService;
+    private final MediaStorage mediaStorage;
+    private final ResponseCache responseCache;
+    private final CollectionCache collectionCache;
+    private final EntityManager entityManager;
 
     @Autowired
-    public AlbumService(AlbumRepository albumRepository, TrackService trackService, ArtistService artistService) {
+    public AlbumService(AlbumRepository albumRepository, TrackService trackService, ArtistService artistService,
+                        MediaStorage mediaStorage, ResponseCache responseCache, CollectionCache collectionCache,
+                        EntityManager entityManager) {
         this.albumRepository = albumRepository;
         this.trackService = trackService;
         this.artistService = artistService;
+        this.mediaStorage = mediaStorage;
+        this.responseCache = responseCache;
+        this.collectionCache = collectionCache;
+        this.entityManager = entityManager;
     }
     
     public List<Album> findAll() {
         return albumRepository.findAll();
     }
+
+    public CursorPage<Album> findPage(KeysetRequest request, String title) {
+        String pattern = KeysetRequest.toLikePattern(title);
+        List<Album> rows = switch (request.getSort()) {
+            case ID_ASC -> albumRepository.findPageByIdAsc(request.getAfterId(), pattern, request.toPageable());
+            case ID_DESC -> albumRepository.findPageByIdDesc(request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_ASC -> albumRepository.findPageByCreatedAtAsc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_DESC -> albumRepository.findPageByCreatedAtDesc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+        };
+
+        return CursorPage.of(rows, request, Album::getId, Album::getCreatedAt);
+    }
+
+    /**
+     * Feeds every album to the action in id order without keeping them in the persistence context.
+     */
+    public void forEachAlbum(Consumer<Album> action) {
+        try (Stream<Album> albums = albumRepository.streamAll()) {
+            albums.forEach(album -> {
+                action.accept(album);
+                entityManager.detach(album);
+            });
+        }
+    }
     
     public Album findById(int id) {
         return albumRepository.findById(id).orElseThrow(AlbumNotFoundException::new);
     }
 
+    public Album findByIdWithTracks(int id) {
+        return albumRepository.findByIdWithTracks(id).orElseThrow(AlbumNotFoundException::new);
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void saveAlbum(Album album) {
         album.setCreatedAt(OffsetDateTime.now());
         albumRepository.save(album);
+
+        responseCache.invalidate(CatalogSection.ALBUMS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void setCover(int id, MultipartFile image) {
-        String fileUri =  uploadPath + "/albums/covers/" + UUID.randomUUID() + image.getOriginalFilename();
+        Album album = findById(id);
+        StoredFile file = mediaStorage.store(MediaKind.ALBUM_COVER, image);
 
-        saveFile(fileUri, Paths.get(uploadPath + "/albums/covers/"), image);
+        album.setCover(file.path().toString());
 
+        responseCache.invalidate(CatalogSection.ALBUMS, CatalogSection.ARTISTS);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void attachCover(int id, String sha256) {
         Album album = findById(id);
-        album.setCover(fileUri);
+        StoredFile file = mediaStorage.find(MediaKind.ALBUM_COVER, sha256)
+                .orElseThrow(() -> new ImageNotFoundException());
+
+        album.setCover(file.path().toString());
+
+        responseCache.invalidate(CatalogSection.ALBUMS, CatalogSection.ARTISTS);
     }
 
-    private void saveFile(String fileUri, Path fileUrl, MultipartFile multipartFile)  {
-        try {
-            Files.createDirectories(fileUrl);
-            File file = new File(fileUri);
-            multipartFile.transferTo(file);
-        } catch (IOException e) {
-            throw new FileUploadException();
-        }
+    /**
+     * Adds the tracks to the album with a single insert into album_track. Tracks already on the
+     * album are left alone, so repeating the call changes nothing.
+     */
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void addTracks(int albumId, Collection<Integer> trackIds) {
+        requireExists(albumId);
+        trackService.requireAll(trackIds);
+
+        albumRepository.addTracks(albumId, trackIds);
+        collectionCache.evict(CollectionCache.ALBUM_TRACKS, albumId);
+        collectionCache.evict(CollectionCache.TRACK_ALBUMS, trackIds);
+
+        responseCache.invalidate(CatalogSection.ALBUMS);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void removeTracks(int albumId, Collection<Integer> trackIds) {
+        requireExists(albumId);
+
+        albumRepository.removeTracks(albumId, trackIds);
+        collectionCache.evict(CollectionCache.ALBUM_TRACKS, albumId);
+        collectionCache.evict(CollectionCache.TRACK_ALBUMS, trackIds);
+
+        responseCache.invalidate(CatalogSection.ALBUMS);
     }
 
-    public void setRelationBetweenAlbumAndTrack(int albumId, int trackId) {
-        Track track = trackService.findById(trackId);
-        Album album = findById(albumId);
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void addArtists(int albumId, Collection<Integer> artistIds) {
+        requireExists(albumId);
+        artistService.requireAll(artistIds);
 
-        track.getAlbumList().add(album);
-        album.getTrackList().add(track);
+        albumRepository.addArtists(albumId, artistIds);
+        collectionCache.evict(CollectionCache.ALBUM_ARTISTS, albumId);
+        collectionCache.evict(CollectionCache.ARTIST_ALBUMS, artistIds);
+
+        responseCache.invalidate(CatalogSection.ALBUMS, CatalogSection.ARTISTS);
     }
 
-    public void setRelationBetweenAlbumAndAlbum(int albumId, int artistId) {
-        Artist artist = artistService.findById(artistId);
-        Album album = findById(albumId);
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void removeArtists(int albumId, Collection<Integer> artistIds) {
+        requireExists(albumId);
+
+        albumRepository.removeArtists(albumId, artistIds);
+        collectionCache.evict(CollectionCache.ALBUM_ARTISTS, albumId);
+        collectionCache.evict(CollectionCache.ARTIST_ALBUMS, artistIds);
+
+        responseCache.invalidate(CatalogSection.ALBUMS, CatalogSection.ARTISTS);
+    }
 
-        artist.getAlbumList().add(album);
-        album.getArtistList().add(artist);
+    private void requireExists(int albumId) {
+        if (!albumRepository.existsById(albumId))
+            throw new AlbumNotFoundException();
     }
 }
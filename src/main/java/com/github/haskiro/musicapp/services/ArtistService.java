@@ -1,55 +1,110 @@
 package com.github.haskiro.musicapp.services;
 
 import com.github.haskiro.musicapp.models.Artist;
-import com.github.haskiro.musicapp.models.Track;
 import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
 import com.github.haskiro.musicapp.util.exceptions.ArtistNotFoundException;
-import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
-import org.hibernate.Hibernate;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import com.github.haskiro.musicapp.util.storage.StoredFile;
+import com.github.haskiro.musicapp.util.cache.CatalogSection;
+import com.github.haskiro.musicapp.util.cache.CollectionCache;
+import com.github.haskiro.musicapp.util.cache.ResponseCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 @Transactional(readOnly = true)
 public class ArtistService {
     private final ArtistRepository artistRepository;
     private final TrackService trackService;
-    @Value("${upload.path}")
-    private String uploadPath;
+    private final MediaStorage mediaStorage;
+    private final ResponseCache responseCache;
+    private final CollectionCache collectionCache;
+    private final TypeaheadService typeaheadService;
+    private final EntityManager entityManager;
 
     @Autowired
-    public ArtistService(ArtistRepository artistRepository, TrackService trackService) {
+    public ArtistService(ArtistRepository artistRepository, TrackService trackService, MediaStorage mediaStorage,
+                         ResponseCache responseCache, CollectionCache collectionCache,
+                         TypeaheadService typeaheadService, EntityManager entityManager) {
         this.artistRepository = artistRepository;
         this.trackService = trackService;
+        this.mediaStorage = mediaStorage;
+        this.responseCache = responseCache;
+        this.collectionCache = collectionCache;
+        this.typeaheadService = typeaheadService;
+        this.entityManager = entityManager;
     }
 
     public List<Artist> findAll() {
         return artistRepository.findAll();
     }
 
-    public Artist findById(int id) {
-        Optional<Artist> artist = artistRepository.findById(id);
+    public CursorPage<Artist> findPage(KeysetRequest request, String nickname) {
+        String pattern = KeysetRequest.toLikePattern(nickname);
+        List<Artist> rows = switch (request.getSort()) {
+            case ID_ASC -> artistRepository.findPageByIdAsc(request.getAfterId(), pattern, request.toPageable());
+            case ID_DESC -> artistRepository.findPageByIdDesc(request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_ASC -> artistRepository.findPageByCreatedAtAsc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_DESC -> artistRepository.findPageByCreatedAtDesc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+        };
+
+        return CursorPage.of(rows, request, Artist::getId, Artist::getCreatedAt);
+    }
+
+    /**
+     * Feeds every artist to the action in id order without keeping them in the persistence context.
+     */
+    public void forEachArtist(Consumer<Artist> action) {
+        try (Stream<Artist> artists = artistRepository.streamAll()) {
+            artists.forEach(artist -> {
+                action.accept(artist);
+                entityManager.detach(artist);
+            });
+        }
+    }
 
-        if (artist.isEmpty())
+    // One count query however many ids are given; throws if any of them does not exist
+    public void requireAll(Collection<Integer> ids) {
+        if (artistRepository.countByIdIn(ids) != new HashSet<>(ids).size())
             throw new ArtistNotFoundException();
+    }
+
+    public Artist findById(int id) {
+        return artistRepository.findById(id)
+                .orElseThrow(ArtistNotFoundException::new);
+    }
 
-        Hibernate.initialize(artist.get().getTrackList());
+    /**
+     * Loads the artist with tracks and albums initialized, in two statements regardless of their size.
+     */
+    public Artist findByIdWithTracksAndAlbums(int id) {
+        Artist artist = artistRepository.findByIdWithTracks(id)
+                .orElseThrow(ArtistNotFoundException::new);
 
-        return artist.get();
+        // Same persistence context, so this only initializes albumList of the instance above
+        artistRepository.findByIdWithAlbums(id);
+
+        return artist;
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -58,69 +113,121 @@ public class ArtistService {
         artist.setCreatedAt(OffsetDateTime.now());
 
         artistRepository.save(artist);
+        typeaheadService.artistSaved(artist.getId(), artist.getNickname());
+
+        responseCache.invalidate(CatalogSection.ARTISTS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
-    public void updateArtist(Artist artistToBeUpdated) {
-        Artist artist = findById(artistToBeUpdated.getId());
-
-        artistToBeUpdated.setCreatedAt(artist.getCreatedAt());
-        artistToBeUpdated.setTrackList(artist.getTrackList());
+    public void updateArtist(Artist artistToBeUpdated, Long expectedVersion) {
+        if (expectedVersion != null) {
+            if (artistRepository.updateIfVersion(artistToBeUpdated, expectedVersion) == 0) {
+                if (!artistRepository.existsById(artistToBeUpdated.getId()))
+                    throw new ArtistNotFoundException();
+
+                throw new VersionConflictException();
+            }
+        } else {
+            Artist artist = findById(artistToBeUpdated.getId());
+
+            artist.setNickname(artistToBeUpdated.getNickname());
+            artist.setFirstName(artistToBeUpdated.getFirstName());
+            artist.setLastName(artistToBeUpdated.getLastName());
+            artist.setBirthDate(artistToBeUpdated.getBirthDate());
+            artist.setPhoto(artistToBeUpdated.getPhoto());
+            artist.setBio(artistToBeUpdated.getBio());
+        }
+        typeaheadService.artistSaved(artistToBeUpdated.getId(), artistToBeUpdated.getNickname());
 
-        artistRepository.save(artistToBeUpdated);
+        responseCache.invalidate(CatalogSection.ARTISTS);
     }
 
+    /**
+     * Links the artist to the tracks with a single insert into artist_track. Pairs that are already
+     * linked are left alone, so repeating the call changes nothing.
+     */
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
-    public void setRelationBetweenArtistAndTrack(int trackId, int artistId) {
+    public void addTracks(int artistId, Collection<Integer> trackIds) {
+        requireExists(artistId);
+        trackService.requireAll(trackIds);
 
-        Track track = trackService.findById(trackId);
-        Artist artist = findById(artistId);
+        artistRepository.addTracks(artistId, trackIds);
+        evictArtistTracks(artistId, trackIds);
 
-        track.getArtistList().add(artist);
-        artist.getTrackList().add(track);
+        responseCache.invalidate(CatalogSection.ARTISTS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
-    public void removeRelationBetweenArtistAndTrack(int trackId, int artistId) {
-        Track track = trackService.findById(trackId);
-        Artist artist = findById(artistId);
+    public void removeTracks(int artistId, Collection<Integer> trackIds) {
+        requireExists(artistId);
 
-        track.getArtistList().remove(artist);
-        artist.getTrackList().remove(track);
+        artistRepository.removeTracks(artistId, trackIds);
+        evictArtistTracks(artistId, trackIds);
+
+        responseCache.invalidate(CatalogSection.ARTISTS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void deleteArtist(int id) {
-        Artist artist = findById(id);
-        artist.getTrackList().forEach(track -> {
-            track.getArtistList().remove(artist);
-        });
+        if (deleteArtists(List.of(id)) == 0)
+            throw new ArtistNotFoundException();
+    }
 
-        artistRepository.deleteById(id);
+    /**
+     * Deletes the artists and their join rows with three statements however many tracks and albums
+     * they have. Ids that do not exist are skipped; returns the number of artists deleted.
+     */
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public int deleteArtists(Collection<Integer> ids) {
+        int deleted = artistRepository.deleteByIdIn(ids);
+
+        // Which tracks and albums listed them is not known without loading them
+        collectionCache.evictAll(CollectionCache.TRACK_ARTISTS);
+        collectionCache.evictAll(CollectionCache.ALBUM_ARTISTS);
+        collectionCache.evict(CollectionCache.ARTIST_TRACKS, ids);
+        collectionCache.evict(CollectionCache.ARTIST_ALBUMS, ids);
+        typeaheadService.artistsDeleted(ids);
+
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
+
+        return deleted;
     }
 
     @Transactional
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public void setPhoto(int id, MultipartFile file) {
-        String fileUri =  uploadPath + "/artists/" + UUID.randomUUID() + file.getOriginalFilename();
+        Artist artist = findById(id);
+        StoredFile photo = mediaStorage.store(MediaKind.ARTIST_PHOTO, file);
 
-        saveFile(fileUri, Paths.get(uploadPath + "/artists/"), file);
+        artist.setPhoto(photo.path().toString());
+
+        responseCache.invalidate(CatalogSection.ARTISTS);
+    }
 
+    @Transactional
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public void attachPhoto(int id, String sha256) {
         Artist artist = findById(id);
-        artist.setPhoto(fileUri);
+        StoredFile photo = mediaStorage.find(MediaKind.ARTIST_PHOTO, sha256)
+                .orElseThrow(() -> new ImageNotFoundException());
+
+        artist.setPhoto(photo.path().toString());
+
+        responseCache.invalidate(CatalogSection.ARTISTS);
     }
 
-    private void saveFile(String fileUri, Path fileUrl, MultipartFile multipartFile)  {
-        try {
-            Files.createDirectories(fileUrl);
-            File file = new File(fileUri);
-            multipartFile.transferTo(file);
-        } catch (IOException e) {
-            throw new FileUploadException();
-        }
+    private void evictArtistTracks(int artistId, Collection<Integer> trackIds) {
+        collectionCache.evict(CollectionCache.ARTIST_TRACKS, artistId);
+        collectionCache.evict(CollectionCache.TRACK_ARTISTS, trackIds);
+    }
+
+    private void requireExists(int artistId) {
+        if (!artistRepository.existsById(artistId))
+            throw new ArtistNotFoundException();
     }
 }
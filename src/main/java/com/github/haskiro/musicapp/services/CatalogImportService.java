@@ -0,0 +1,280 @@
+package com.github.haskiro.musicapp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.haskiro.musicapp.dto.importDTO.ArtistImportDTO;
+import com.github.haskiro.musicapp.dto.importDTO.ImportResultDTO;
+import com.github.haskiro.musicapp.dto.importDTO.ReleaseImportDTO;
+import com.github.haskiro.musicapp.dto.importDTO.TrackImportDTO;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.util.cache.CatalogSection;
+import com.github.haskiro.musicapp.util.cache.CollectionCache;
+import com.github.haskiro.musicapp.util.cache.ResponseCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Creates whole releases (an album with its artists and tracks) in bulk.
+ * <p>
+ * Releases are validated as they are read and written {@code app.import.batch-size} at a time, one
+ * transaction per batch, with ids taken from the pooled sequences so the inserts are batched too.
+ * Artists are matched by nickname with one query per batch and created only when missing. If a
+ * batch fails to commit, its releases are retried one per transaction so that only the offending
+ * ones are reported as failed.
+ * <p>
+ * Not {@code @Transactional}: each batch must commit on its own.
+ */
+@Service
+@Timed("app.service")
+public class CatalogImportService {
+    private final ArtistRepository artistRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ResponseCache responseCache;
+    private final CollectionCache collectionCache;
+    private final TypeaheadService typeaheadService;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    @Autowired
+    public CatalogImportService(ArtistRepository artistRepository, ObjectMapper objectMapper, Validator validator,
+                                TransactionTemplate transactionTemplate, ResponseCache responseCache,
+                                CollectionCache collectionCache, TypeaheadService typeaheadService,
+                                EntityManager entityManager,
+                                @Value("${app.import.batch-size:50}") int batchSize) {
+        this.artistRepository = artistRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.responseCache = responseCache;
+        this.collectionCache = collectionCache;
+        this.typeaheadService = typeaheadService;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ImportResultDTO importRelease(ReleaseImportDTO release) {
+        return importBatch(List.of(new Item(1, release, null))).get(0);
+    }
+
+    /**
+     * Imports one release per line, handing the results of each batch to {@code results} once the
+     * batch is committed.
+     */
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public void importReleases(Reader ndjson, Consumer<List<ImportResultDTO>> results) throws IOException {
+        BufferedReader reader = new BufferedReader(ndjson);
+        List<Item> batch = new ArrayList<>(batchSize);
+        int lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+
+            batch.add(parse(lineNumber, line));
+            if (batch.size() == batchSize) {
+                results.accept(importBatch(batch));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty())
+            results.accept(importBatch(batch));
+    }
+
+    private Item parse(int line, String json) {
+        try {
+            ReleaseImportDTO release = objectMapper.readValue(json, ReleaseImportDTO.class);
+
+            return release == null ? new Item(line, null, "Release must not be null") : new Item(line, release, null);
+        } catch (JsonProcessingException e) {
+            return new Item(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<ImportResultDTO> importBatch(List<Item> items) {
+        ImportResultDTO[] results = new ImportResultDTO[items.size()];
+        List<Integer> valid = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            String error = item.error() != null ? item.error() : validate(item.release());
+
+            if (error != null)
+                results[i] = ImportResultDTO.failed(item.line(), ref(item), error);
+            else
+                valid.add(i);
+        }
+
+        if (valid.isEmpty())
+            return List.of(results);
+
+        Set<Integer> touchedArtists = new HashSet<>();
+        try {
+            List<Item> writable = valid.stream().map(items::get).toList();
+            List<ImportResultDTO> written = transactionTemplate.execute(status -> write(writable, touchedArtists));
+
+            for (int i = 0; i < valid.size(); i++) {
+                results[valid.get(i)] = written.get(i);
+            }
+        } catch (RuntimeException batchFailure) {
+            touchedArtists.clear();
+
+            for (int index : valid) {
+                Item item = items.get(index);
+                try {
+                    results[index] = transactionTemplate.execute(status -> write(List.of(item), touchedArtists)).get(0);
+                } catch (RuntimeException e) {
+                    results[index] = ImportResultDTO.failed(item.line(), ref(item),
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+
+        // Artist.trackList and albumList are the inverse sides, so Hibernate does not evict them itself
+        collectionCache.evict(CollectionCache.ARTIST_TRACKS, touchedArtists);
+        collectionCache.evict(CollectionCache.ARTIST_ALBUMS, touchedArtists);
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
+
+        return List.of(results);
+    }
+
+    private String validate(ReleaseImportDTO release) {
+        StringBuilder errors = new StringBuilder();
+
+        for (ConstraintViolation<ReleaseImportDTO> violation : validator.validate(release)) {
+            errors.append(violation.getPropertyPath())
+                    .append(" - ").append(violation.getMessage())
+                    .append(";");
+        }
+
+        if (release.getArtists() != null && release.getTracks() != null) {
+            Set<String> nicknames = new HashSet<>();
+            release.getArtists().forEach(artist -> nicknames.add(artist.getNickname()));
+
+            for (TrackImportDTO track : release.getTracks()) {
+                if (track.getArtists() == null)
+                    continue;
+
+                for (String nickname : track.getArtists()) {
+                    if (!nicknames.contains(nickname))
+                        errors.append("tracks - artist ").append(nickname).append(" is not an artist of the release;");
+                }
+            }
+        }
+
+        return errors.isEmpty() ? null : errors.toString();
+    }
+
+    private List<ImportResultDTO> write(List<Item> items, Set<Integer> touchedArtists) {
+        Set<String> nicknames = new HashSet<>();
+        items.forEach(item -> item.release().getArtists().forEach(artist -> nicknames.add(artist.getNickname())));
+
+        Map<String, Artist> artists = new HashMap<>();
+        for (Artist artist : artistRepository.findByNicknameInOrderByIdAsc(nicknames)) {
+            artists.putIfAbsent(artist.getNickname(), artist);
+            touchedArtists.add(artist.getId());
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ImportResultDTO> results = new ArrayList<>(items.size());
+
+        for (Item item : items) {
+            ReleaseImportDTO release = item.release();
+            Map<String, Artist> releaseArtists = new HashMap<>();
+            List<Artist> newArtists = new ArrayList<>();
+            StringBuilder errors = new StringBuilder();
+
+            for (ArtistImportDTO dto : release.getArtists()) {
+                Artist artist = artists.get(dto.getNickname());
+
+                if (artist == null && !releaseArtists.containsKey(dto.getNickname())) {
+                    artist = new Artist(dto.getNickname(), dto.getFirstName(), dto.getLastName(),
+                            dto.getBirthDate(), null, dto.getBio(), now);
+                    appendViolations(errors, artist);
+                    newArtists.add(artist);
+                }
+
+                releaseArtists.putIfAbsent(dto.getNickname(), artist);
+            }
+
+            if (!errors.isEmpty()) {
+                results.add(ImportResultDTO.failed(item.line(), release.getRef(), errors.toString()));
+                continue;
+            }
+
+            for (Artist artist : newArtists) {
+                entityManager.persist(artist);
+                artists.put(artist.getNickname(), artist);
+                typeaheadService.artistSaved(artist.getId(), artist.getNickname());
+            }
+
+            Album album = new Album(release.getTitle(), release.getDescription(), null);
+            album.setCreatedAt(now);
+            album.setArtistList(new HashSet<>(releaseArtists.values()));
+            album.setTrackList(new HashSet<>());
+
+            for (TrackImportDTO dto : release.getTracks()) {
+                Track track = new Track(dto.getTitle(), null, null, dto.getReleasedAt());
+                track.setCreatedAt(now);
+                track.setArtistList(dto.getArtists() == null || dto.getArtists().isEmpty()
+                        ? new HashSet<>(releaseArtists.values())
+                        : new HashSet<>(dto.getArtists().stream().map(releaseArtists::get).toList()));
+
+                entityManager.persist(track);
+                album.getTrackList().add(track);
+                typeaheadService.trackSaved(track.getId(), track.getTitle());
+            }
+            entityManager.persist(album);
+
+            results.add(ImportResultDTO.created(item.line(), release.getRef(), album.getId(),
+                    release.getTracks().size()));
+        }
+
+        return results;
+    }
+
+    // Artists not found by nickname are created from the import, so they need all their fields
+    private void appendViolations(StringBuilder errors, Artist artist) {
+        for (ConstraintViolation<Artist> violation : validator.validate(artist)) {
+            errors.append("artists[").append(artist.getNickname()).append("].")
+                    .append(violation.getPropertyPath())
+                    .append(" - ").append(violation.getMessage())
+                    .append(";");
+        }
+    }
+
+    private static String ref(Item item) {
+        return item.release() == null ? null : item.release().getRef();
+    }
+
+    private record Item(int line, ReleaseImportDTO release, String error) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.repositories.SearchRepository;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.search.SearchHit;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Timed("app.service")
+@Transactional(readOnly = true)
+public class SearchService {
+    private final SearchRepository searchRepository;
+
+    @Autowired
+    public SearchService(SearchRepository searchRepository) {
+        this.searchRepository = searchRepository;
+    }
+
+    public CursorPage<SearchHit> search(SearchRequest request) {
+        return request.toPage(searchRepository.search(request));
+    }
+}
@@ -2,104 +2,224 @@ package com.github.haskiro.musicapp.services;
 
 import com.github.haskiro.musicapp.models.Track;
 import com.github.haskiro.musicapp.repositories.TrackRepository;
-import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import com.github.haskiro.musicapp.util.exceptions.AudioNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
 import com.github.haskiro.musicapp.util.exceptions.TrackNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import com.github.haskiro.musicapp.util.storage.StoredFile;
+import com.github.haskiro.musicapp.util.cache.CatalogSection;
+import com.github.haskiro.musicapp.util.cache.CollectionCache;
+import com.github.haskiro.musicapp.util.cache.ResponseCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 @Transactional(readOnly = true)
 public class TrackService {
     private final TrackRepository trackRepository;
-    @Value("${upload.path}")
-    private String uploadPath;
+    private final MediaStorage mediaStorage;
+    private final ResponseCache responseCache;
+    private final CollectionCache collectionCache;
+    private final TypeaheadService typeaheadService;
+    private final EntityManager entityManager;
 
     @Autowired
-    public TrackService(TrackRepository trackRepository) {
+    public TrackService(TrackRepository trackRepository, MediaStorage mediaStorage, ResponseCache responseCache,
+                        CollectionCache collectionCache, TypeaheadService typeaheadService,
+                        EntityManager entityManager) {
         this.trackRepository = trackRepository;
+        this.mediaStorage = mediaStorage;
+        this.responseCache = responseCache;
+        this.collectionCache = collectionCache;
+        this.typeaheadService = typeaheadService;
+        this.entityManager = entityManager;
     }
 
     public List<Track> findAll() {
         return trackRepository.findAll();
     }
 
+    public CursorPage<Track> findPage(KeysetRequest request, String title) {
+        String pattern = KeysetRequest.toLikePattern(title);
+        List<Track> rows = switch (request.getSort()) {
+            case ID_ASC -> trackRepository.findPageByIdAsc(request.getAfterId(), pattern, request.toPageable());
+            case ID_DESC -> trackRepository.findPageByIdDesc(request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_ASC -> trackRepository.findPageByCreatedAtAsc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_DESC -> trackRepository.findPageByCreatedAtDesc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+        };
+
+        return CursorPage.of(rows, request, Track::getId, Track::getCreatedAt);
+    }
+
+    /**
+     * Feeds every track to the action in id order without keeping them in the persistence context.
+     */
+    public void forEachTrack(Consumer<Track> action) {
+        try (Stream<Track> tracks = trackRepository.streamAll()) {
+            tracks.forEach(track -> {
+                action.accept(track);
+                entityManager.detach(track);
+            });
+        }
+    }
+
+    // One count query however many ids are given; throws if any of them does not exist
+    public void requireAll(Collection<Integer> ids) {
+        if (trackRepository.countByIdIn(ids) != new HashSet<>(ids).size())
+            throw new TrackNotFoundException();
+    }
+
     public Track findById(int id) {
         return trackRepository.findById(id)
                 .orElseThrow(() -> new TrackNotFoundException());
     }
 
+    public Path findAudioPath(int id) {
+        return mediaStorage.resolve(findById(id).getAudioFile())
+                .orElseThrow(() -> new AudioNotFoundException());
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void saveTrack(Track track) {
         track.setCreatedAt(OffsetDateTime.now());
 
         trackRepository.save(track);
+        typeaheadService.trackSaved(track.getId(), track.getTitle());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void deleteTrack(int id) {
-        Track track = findById(id);
-        track.getArtistList().forEach(artist -> {
-            artist.getTrackList().remove(track);
-        });
-
-        trackRepository.deleteById(id);
+        if (deleteTracks(List.of(id)) == 0)
+            throw new TrackNotFoundException();
     }
 
+    /**
+     * Deletes the tracks and their join rows with three statements however many artists and albums
+     * they belong to. Ids that do not exist are skipped; returns the number of tracks deleted.
+     */
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
-    public void updateTrack(Track trackToBeUpdated) {
-        Track track = findById(trackToBeUpdated.getId());
+    public int deleteTracks(Collection<Integer> ids) {
+        int deleted = trackRepository.deleteByIdIn(ids);
+
+        // Which artists and albums listed them is not known without loading them
+        collectionCache.evictAll(CollectionCache.ARTIST_TRACKS);
+        collectionCache.evictAll(CollectionCache.ALBUM_TRACKS);
+        collectionCache.evict(CollectionCache.TRACK_ARTISTS, ids);
+        collectionCache.evict(CollectionCache.TRACK_ALBUMS, ids);
+        typeaheadService.tracksDeleted(ids);
 
-        trackToBeUpdated.setCreatedAt(track.getCreatedAt());
-        trackToBeUpdated.setArtistList(track.getArtistList());
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
 
-        trackRepository.save(trackToBeUpdated);
+        return deleted;
+    }
+
+    /**
+     * With an expected version the track is changed by one conditional UPDATE without being read first;
+     * without one it is read and written back, still guarded by its version.
+     */
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void updateTrack(Track trackToBeUpdated, Long expectedVersion) {
+        if (expectedVersion != null) {
+            if (trackRepository.updateIfVersion(trackToBeUpdated, expectedVersion) == 0) {
+                if (!trackRepository.existsById(trackToBeUpdated.getId()))
+                    throw new TrackNotFoundException();
+
+                throw new VersionConflictException();
+            }
+        } else {
+            Track track = findById(trackToBeUpdated.getId());
+
+            track.setTitle(trackToBeUpdated.getTitle());
+            track.setCover(trackToBeUpdated.getCover());
+            track.setReleasedAt(trackToBeUpdated.getReleasedAt());
+        }
+        typeaheadService.trackSaved(trackToBeUpdated.getId(), trackToBeUpdated.getTitle());
+
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void setCover(int id, MultipartFile image) {
-        String fileUri =  uploadPath + "/tracks/covers/" + UUID.randomUUID() + image.getOriginalFilename();
+        Track track = findById(id);
+        StoredFile file = mediaStorage.store(MediaKind.TRACK_COVER, image);
 
-        saveFile(fileUri, Paths.get(uploadPath + "/tracks/covers/"), image);
+        track.setCover(file.path().toString());
 
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void attachCover(int id, String sha256) {
         Track track = findById(id);
-        track.setCover(fileUri);
+        StoredFile file = mediaStorage.find(MediaKind.TRACK_COVER, sha256)
+                .orElseThrow(() -> new ImageNotFoundException());
+
+        track.setCover(file.path().toString());
+
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Transactional
     public void setAudio(int id, MultipartFile audio) {
-        String fileUri =  uploadPath + "/tracks/audio/" + UUID.randomUUID() + audio.getOriginalFilename();
+        Track track = findById(id);
+        StoredFile file = mediaStorage.store(MediaKind.TRACK_AUDIO, audio);
 
-        saveFile(fileUri, Paths.get(uploadPath + "/tracks/audio/"), audio);
+        track.setAudioFile(file.path().toString());
 
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
+    }
+
+    /**
+     * Stores an audio body streamed straight from the request, without multipart buffering.
+     */
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void setAudio(int id, String filename, InputStream audio, long contentLength) {
         Track track = findById(id);
-        track.setAudioFile(fileUri);
+        StoredFile file = mediaStorage.store(MediaKind.TRACK_AUDIO, filename, audio, contentLength);
+
+        track.setAudioFile(file.path().toString());
+
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
     }
 
-    private void saveFile(String fileUri, Path fileUrl, MultipartFile multipartFile)  {
-        try {
-            Files.createDirectories(fileUrl);
-            File file = new File(fileUri);
-            multipartFile.transferTo(file);
-        } catch (IOException e) {
-            throw new FileUploadException();
-        }
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    public void attachAudio(int id, String sha256) {
+        Track track = findById(id);
+        StoredFile file = mediaStorage.find(MediaKind.TRACK_AUDIO, sha256)
+                .orElseThrow(() -> new AudioNotFoundException());
+
+        track.setAudioFile(file.path().toString());
+
+        responseCache.invalidate(CatalogSection.ARTISTS, CatalogSection.ALBUMS);
     }
 }
@@ -0,0 +1,125 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.util.exceptions.SearchQueryException;
+import com.github.haskiro.musicapp.util.search.SearchRequest;
+import com.github.haskiro.musicapp.util.search.SearchType;
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import com.github.haskiro.musicapp.util.search.TypeaheadIndex;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Autocomplete over artist nicknames and track titles from in-memory {@link TypeaheadIndex}es.
+ * <p>
+ * The indexes are loaded once the application is ready and then follow the catalog services: every
+ * change is applied after its transaction commits, so a rolled back write never shows up. Changes made
+ * while the indexes are loading are kept.
+ */
+@Service
+@Timed("app.service")
+public class TypeaheadService {
+    public static final int MAX_LIMIT = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadService.class);
+
+    private final ArtistRepository artistRepository;
+    private final TrackRepository trackRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TypeaheadIndex artists;
+    private final TypeaheadIndex tracks;
+
+    @Autowired
+    public TypeaheadService(ArtistRepository artistRepository, TrackRepository trackRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.typeahead.compaction-threshold:4096}") int compactionThreshold) {
+        this.artistRepository = artistRepository;
+        this.trackRepository = trackRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.artists = new TypeaheadIndex(compactionThreshold);
+        this.tracks = new TypeaheadIndex(compactionThreshold);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long begin = System.nanoTime();
+
+        artists.load(readAll(artistRepository::streamSuggestions));
+        tracks.load(readAll(trackRepository::streamSuggestions));
+
+        log.info("Loaded typeahead indexes with {} artists and {} tracks in {} ms", artists.size(), tracks.size(),
+                (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    public List<Suggestion> suggest(SearchType type, String query, int limit) {
+        if (query == null || query.isBlank())
+            throw new SearchQueryException("Query must not be empty");
+        if (query.length() > SearchRequest.MAX_QUERY_LENGTH)
+            throw new SearchQueryException("Query must be at most " + SearchRequest.MAX_QUERY_LENGTH + " characters");
+        if (limit < 1 || limit > MAX_LIMIT)
+            throw new SearchQueryException("Limit must be between 1 and " + MAX_LIMIT);
+
+        return switch (type) {
+            case ARTIST -> artists.suggest(query, limit);
+            case TRACK -> tracks.suggest(query, limit);
+            case ALBUM -> throw new SearchQueryException("Suggestions are available for artists and tracks only");
+        };
+    }
+
+    public void artistSaved(int id, String nickname) {
+        afterCommit(() -> artists.put(id, nickname));
+    }
+
+    public void artistsDeleted(Collection<Integer> ids) {
+        List<Integer> deleted = List.copyOf(ids);
+        afterCommit(() -> deleted.forEach(artists::remove));
+    }
+
+    public void trackSaved(int id, String title) {
+        afterCommit(() -> tracks.put(id, title));
+    }
+
+    public void tracksDeleted(Collection<Integer> ids) {
+        List<Integer> deleted = List.copyOf(ids);
+        afterCommit(() -> deleted.forEach(tracks::remove));
+    }
+
+    private List<Suggestion> readAll(Supplier<Stream<Suggestion>> query) {
+        return transactionTemplate.execute(status -> {
+            try (Stream<Suggestion> rows = query.get()) {
+                return rows.toList();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -7,48 +7,56 @@ import com.github.haskiro.musicapp.dto.userDTO.RoleDTO;
 import com.github.haskiro.musicapp.models.Role;
 import com.github.haskiro.musicapp.models.User;
 import com.github.haskiro.musicapp.repositories.UserRepository;
+import com.github.haskiro.musicapp.security.OffloadingPasswordEncoder;
+import com.github.haskiro.musicapp.security.PrincipalCache;
 import com.github.haskiro.musicapp.security.UserDetailsImpl;
 import com.github.haskiro.musicapp.util.AuthenticationResponse;
-import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import com.github.haskiro.musicapp.util.exceptions.ImageNotFoundException;
 import com.github.haskiro.musicapp.util.exceptions.UserCreateUpdateException;
 import com.github.haskiro.musicapp.util.exceptions.UserNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import com.github.haskiro.musicapp.util.storage.StoredFile;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
+@Timed("app.service")
 @Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final OffloadingPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    @Value("${upload.path}")
-    private String uploadPath;
+    private final PrincipalCache principalCache;
+    private final MediaStorage mediaStorage;
+    private final Executor taskExecutor;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public UserService(UserRepository userRepository, OffloadingPasswordEncoder passwordEncoder, JwtService jwtService, PrincipalCache principalCache,
+                       MediaStorage mediaStorage, @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
-        this.authenticationManager = authenticationManager;
+        this.principalCache = principalCache;
+        this.mediaStorage = mediaStorage;
+        this.taskExecutor = taskExecutor;
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -56,6 +64,21 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public CursorPage<User> findPage(KeysetRequest request, String email) {
+        String pattern = KeysetRequest.toLikePattern(email);
+        List<User> rows = switch (request.getSort()) {
+            case ID_ASC -> userRepository.findPageByIdAsc(request.getAfterId(), pattern, request.toPageable());
+            case ID_DESC -> userRepository.findPageByIdDesc(request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_ASC -> userRepository.findPageByCreatedAtAsc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+            case CREATED_AT_DESC -> userRepository.findPageByCreatedAtDesc(request.getAfterCreatedAt(),
+                    request.getAfterId(), pattern, request.toPageable());
+        };
+
+        return CursorPage.of(rows, request, User::getId, User::getCreatedAt);
+    }
+
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -65,33 +88,40 @@ public class UserService {
                 .orElseThrow(UserNotFoundException::new);
     }
 
-    @Transactional
-    public AuthenticationResponse register(User user) {
-        String encodedPassword = passwordEncoder.encode(user.getPassword());
-        user.setPassword(encodedPassword);
+    /**
+     * Hashes the password on the hashing pool and saves the user once the hash is ready. The insert runs
+     * in its own transaction on the application task executor, never on a hashing thread.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<AuthenticationResponse> register(User user) {
         user.setCreatedAt(OffsetDateTime.now());
         user.setRole(Role.ROLE_USER);
 
-        userRepository.save(user);
+        return passwordEncoder.encodeAsync(user.getPassword())
+                .thenApplyAsync(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    userRepository.save(user);
 
-        String jwtToken = jwtService.generateToken(new UserDetailsImpl(user));
-        return new AuthenticationResponse(jwtToken);
+                    return authenticationResponse(user);
+                }, taskExecutor);
     }
 
+    /**
+     * Looks the user up on the calling thread, then checks the password on the hashing pool. The token
+     * is signed where the check completes; that touches no connection.
+     */
     @Transactional
-    public AuthenticationResponse login(LoginDTO request) {
+    public CompletableFuture<AuthenticationResponse> login(LoginDTO request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found!"));
 
-        authenticationManager.authenticate (
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        return passwordEncoder.matchesAsync(request.getPassword(), user.getPassword())
+                .thenApply(matches -> {
+                    if (!matches)
+                        throw new BadCredentialsException("Bad credentials");
 
-        String jwtToken = jwtService.generateToken(new UserDetailsImpl(user));
-        return new AuthenticationResponse(jwtToken);
+                    return authenticationResponse(user);
+                });
     }
 
     @Transactional
@@ -100,17 +130,37 @@ public class UserService {
         User user = findById(id);
 
         userRepository.delete(user);
+        principalCache.invalidate(user.getEmail());
     }
 
     @Transactional
-    public void updateUser(User userToBeUpdated) {
-        User user = findById(userToBeUpdated.getId());
-
-        userToBeUpdated.setCreatedAt(user.getCreatedAt());
-        userToBeUpdated.setRole(user.getRole());
-        userToBeUpdated.setPassword(user.getPassword());
+    public void updateUser(User userToBeUpdated, Long expectedVersion) {
+        if (expectedVersion != null) {
+            // Tokens issued for the previous email must be revoked too, so it is read before it is replaced
+            Optional<String> previousEmail = userRepository.findEmailIfVersion(userToBeUpdated.getId(), expectedVersion);
+
+            if (previousEmail.isEmpty() || userRepository.updateIfVersion(userToBeUpdated, expectedVersion) == 0) {
+                if (!userRepository.existsById(userToBeUpdated.getId()))
+                    throw new UserNotFoundException();
+
+                throw new VersionConflictException();
+            }
+
+            principalCache.invalidate(previousEmail.get());
+            if (!previousEmail.get().equals(userToBeUpdated.getEmail()))
+                principalCache.invalidate(userToBeUpdated.getEmail());
+            return;
+        }
 
-        userRepository.save(userToBeUpdated);
+        User user = findById(userToBeUpdated.getId());
+        principalCache.invalidate(user.getEmail());
+
+        user.setEmail(userToBeUpdated.getEmail());
+        user.setFirstName(userToBeUpdated.getFirstName());
+        user.setLastName(userToBeUpdated.getLastName());
+        user.setPhoto(userToBeUpdated.getPhoto());
+        user.setBio(userToBeUpdated.getBio());
+        user.setBirthDate(userToBeUpdated.getBirthDate());
     }
 
     @Transactional
@@ -120,6 +170,7 @@ public class UserService {
            Role role = Role.valueOf(roleDTO.getName());
             User user = findById(id);
             user.setRole(role);
+            principalCache.invalidate(user.getEmail());
 
         } catch (IllegalArgumentException ex) {
             throw new UserCreateUpdateException("Role not found");
@@ -136,21 +187,23 @@ public class UserService {
 
     @Transactional
     public void setPhoto(int id, MultipartFile file) {
-        String fileUri =  uploadPath + "/users/photo/" + UUID.randomUUID() + file.getOriginalFilename();
+        User user = findById(id);
+        StoredFile photo = mediaStorage.store(MediaKind.USER_PHOTO, file);
 
-        saveFile(fileUri, Paths.get(uploadPath + "/users/photo/"), file);
+        user.setPhoto(photo.path().toString());
+    }
 
+    @Transactional
+    public void attachPhoto(int id, String sha256) {
         User user = findById(id);
-        user.setPhoto(fileUri);
+        StoredFile photo = mediaStorage.find(MediaKind.USER_PHOTO, sha256)
+                .orElseThrow(() -> new ImageNotFoundException());
+
+        user.setPhoto(photo.path().toString());
     }
 
-    private void saveFile(String fileUri, Path fileUrl, MultipartFile multipartFile)  {
-        try {
-            Files.createDirectories(fileUrl);
-            File file = new File(fileUri);
-            multipartFile.transferTo(file);
-        } catch (IOException e) {
-            throw new FileUploadException();
-        }
+    private AuthenticationResponse authenticationResponse(User user) {
+        String jwtToken = jwtService.generateToken(new UserDetailsImpl(user));
+        return new AuthenticationResponse(jwtToken);
     }
 }
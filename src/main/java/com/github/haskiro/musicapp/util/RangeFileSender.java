@@ -0,0 +1,185 @@
+package com.github.haskiro.musicapp.util;
+
+import com.github.haskiro.musicapp.util.storage.BufferPool;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Sends a file, or a single byte range of it, with validators and conditional request support.
+ * <p>
+ * On Tomcat connectors that support sendfile the body is handed to the connector, which copies it
+ * from the page cache to the socket without passing through the JVM. That is the only zero-copy path:
+ * the servlet output stream is not a channel the kernel can write to, so otherwise the range is read
+ * at its offset into a pooled heap buffer and written to the response from there.
+ */
+@Component
+public class RangeFileSender {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final boolean sendfileEnabled;
+    private final BufferPool bufferPool;
+
+    public RangeFileSender(@Value("${app.audio.sendfile:true}") boolean sendfileEnabled,
+                           @Value("${app.audio.buffer-size:64KB}") DataSize bufferSize,
+                           @Value("${app.audio.pooled-buffers:32}") int pooledBuffers) {
+        this.sendfileEnabled = sendfileEnabled;
+        this.bufferPool = new BufferPool(pooledBuffers, (int) bufferSize.toBytes());
+    }
+
+    public void send(Path path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+
+        if (rangeHeader != null && isRangeApplicable(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+
+            // Multiple ranges are rare for media players; they get the whole file
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+
+                if (length == 0 || !isSatisfiable(rangeHeader, length)) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count <= 0)
+            return;
+
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            OutputStream outputStream = response.getOutputStream();
+            byte[] array = buffer.array();
+            long position = start;
+
+            while (position <= end) {
+                buffer.clear().limit((int) Math.min(array.length, end + 1 - position));
+                int read = file.read(buffer, position);
+                // The file was truncated since its length was sent; the client sees a short body
+                if (read < 0)
+                    break;
+
+                outputStream.write(array, 0, read);
+                position += read;
+            }
+            outputStream.flush();
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch != null)
+            return ifNoneMatch.trim().equals("*") || matchesEtag(ifNoneMatch, etag);
+
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    // If-Range carries either an entity tag or a date; a range is only served if the file is unchanged
+    private static boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (ifRange == null)
+            return true;
+
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/"))
+            return ifRange.trim().equals(etag);
+
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && lastModified <= date;
+    }
+
+    private static boolean isSatisfiable(String rangeHeader, long length) {
+        // "bytes=N-" and "bytes=N-M" are unsatisfiable when N is past the end; suffix ranges always fit
+        String spec = rangeHeader.substring(rangeHeader.indexOf('=') + 1).trim();
+
+        if (spec.startsWith("-"))
+            return !spec.equals("-0");
+
+        return Long.parseLong(spec.substring(0, spec.indexOf('-')).trim()) < length;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+
+            if (tag.equals(etag))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
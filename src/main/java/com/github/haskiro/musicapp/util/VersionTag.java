@@ -0,0 +1,40 @@
+package com.github.haskiro.musicapp.util;
+
+import com.github.haskiro.musicapp.util.exceptions.VersionConflictException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entity tags derived from the {@code @Version} column of an entity.
+ * <p>
+ * A detail response is tagged {@code "v<version>"}. The response cache appends a content hash to it,
+ * {@code "v<version>-<hash>"}, because related tracks and albums change without bumping the version.
+ * {@code If-Match} accepts either form and only compares the version.
+ */
+public final class VersionTag {
+    private static final Pattern TAG = Pattern.compile("\"v(\\d{1,18})(-[^\"]*)?\"");
+
+    private VersionTag() {
+    }
+
+    public static String of(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    /**
+     * @return the version required by an {@code If-Match} header, or null if there is no precondition
+     * @throws VersionConflictException if the header is not a single strong tag issued by this API
+     */
+    public static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+
+        // If-Match uses strong comparison, so weak and foreign tags can never match
+        Matcher matcher = TAG.matcher(ifMatch.trim());
+        if (!matcher.matches())
+            throw new VersionConflictException();
+
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.haskiro.musicapp.util.cache;
+
+import java.util.regex.Pattern;
+
+/**
+ * Groups of cached catalog responses that are invalidated together.
+ */
+public enum CatalogSection {
+    ARTISTS("/api/artists"),
+    ALBUMS("/api/albums");
+
+    private final Pattern cacheablePath;
+
+    CatalogSection(String basePath) {
+        // The list page and the detail of one entity; exports and relation endpoints are not cached
+        this.cacheablePath = Pattern.compile(Pattern.quote(basePath) + "(/\\d+)?/?");
+    }
+
+    public static CatalogSection forPath(String path) {
+        for (CatalogSection section : values()) {
+            if (section.cacheablePath.matcher(path).matches())
+                return section;
+        }
+
+        return null;
+    }
+}
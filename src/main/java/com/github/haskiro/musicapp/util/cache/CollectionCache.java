@@ -0,0 +1,76 @@
+package com.github.haskiro.musicapp.util.cache;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts many-to-many collections from the second-level cache for join table rows Hibernate did not
+ * write itself: the inverse sides of a persisted relation, and both sides of a native insert or delete.
+ */
+@Component
+public class CollectionCache {
+    public static final String ARTIST_TRACKS = Artist.class.getName() + ".trackList";
+    public static final String ARTIST_ALBUMS = Artist.class.getName() + ".albumList";
+    public static final String TRACK_ARTISTS = Track.class.getName() + ".artistList";
+    public static final String TRACK_ALBUMS = Track.class.getName() + ".albumList";
+    public static final String ALBUM_TRACKS = Album.class.getName() + ".trackList";
+    public static final String ALBUM_ARTISTS = Album.class.getName() + ".artistList";
+
+    private final Cache cache;
+
+    @Autowired
+    public CollectionCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void evict(String role, int ownerId) {
+        evict(role, List.of(ownerId));
+    }
+
+    public void evict(String role, Collection<Integer> ownerIds) {
+        List<Integer> ids = List.copyOf(ownerIds);
+        evictNow(role, ids);
+
+        // As in ResponseCache: a concurrent load may cache the old rows before the change is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(role, ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * For changes that touch an unknown set of owners, such as deleting the elements of their collections.
+     */
+    public void evictAll(String role) {
+        cache.evictCollectionData(role);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictCollectionData(role);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String role, Collection<Integer> ownerIds) {
+        for (Integer id : ownerIds) {
+            cache.evictCollectionData(role, id);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.haskiro.musicapp.util.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of serialized catalog responses with their ETags, keyed by request URI and query.
+ * <p>
+ * Each section has a generation that is bumped on invalidation. A response computed while the
+ * generation changed underneath it is not stored, so a read racing a commit cannot put stale
+ * data back into the cache.
+ */
+@Component
+public class ResponseCache {
+    private final int maxEntries;
+    private final int maxEntrySize;
+
+    private final Map<String, Entry> entries;
+    private final Map<CatalogSection, Long> generations = new EnumMap<>(CatalogSection.class);
+
+    public ResponseCache(@Value("${app.response-cache.max-entries:2000}") int maxEntries,
+                         @Value("${app.response-cache.max-entry-size:262144}") int maxEntrySize) {
+        this.maxEntries = maxEntries;
+        this.maxEntrySize = maxEntrySize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+
+        for (CatalogSection section : CatalogSection.values()) {
+            generations.put(section, 0L);
+        }
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized long generation(CatalogSection section) {
+        return generations.get(section);
+    }
+
+    /**
+     * Stores the response unless its section was invalidated since {@code generation} was read.
+     */
+    public synchronized boolean put(String key, CatalogSection section, long generation, Entry entry) {
+        if (generations.get(section) != generation || entry.body().length > maxEntrySize)
+            return false;
+
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Drops every cached response of the given sections now and, inside a transaction, again once it commits.
+     */
+    public void invalidate(CatalogSection... sections) {
+        evict(sections);
+
+        // A concurrent request may cache the old state before the change is committed, evict it once more
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(sections);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(CatalogSection... sections) {
+        for (CatalogSection section : sections) {
+            generations.merge(section, 1L, Long::sum);
+            entries.values().removeIf(entry -> entry.section() == section);
+        }
+    }
+
+    public record Entry(CatalogSection section, byte[] body, String contentType, String etag) {
+    }
+}
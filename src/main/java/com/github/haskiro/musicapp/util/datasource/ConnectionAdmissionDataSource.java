@@ -0,0 +1,58 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many threads may wait for a connection of the pool at once. A thread that finds
+ * {@code maxWaiters} others already waiting is refused with {@link SQLTransientConnectionException}
+ * straight away, the same exception the pool throws when its connection timeout runs out.
+ * <p>
+ * Threads holding a connection are not counted; the pool size limits those.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+    private final Semaphore waiters;
+    private final LongAdder rejected = new LongAdder();
+
+    public ConnectionAdmissionDataSource(DataSource targetDataSource, int maxWaiters) {
+        super(targetDataSource);
+        this.waiters = new Semaphore(maxWaiters);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            return super.getConnection();
+        } finally {
+            waiters.release();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            waiters.release();
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void admit() throws SQLException {
+        if (!waiters.tryAcquire()) {
+            rejected.increment();
+            throw new SQLTransientConnectionException("Too many requests are waiting for a database connection");
+        }
+    }
+}
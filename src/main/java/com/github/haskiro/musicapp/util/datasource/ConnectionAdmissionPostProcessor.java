@@ -0,0 +1,76 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts a {@link ConnectionAdmissionDataSource} in front of every connection pool: each data source bean,
+ * and the replica pools of a {@link ReplicaRoutingDataSource}, which are not beans. Proxies and routers
+ * are left alone, they hand out connections of the pools behind them.
+ * <p>
+ * Refusals are published per pool as {@code jdbc.connections.rejected}, tagged with the pool name.
+ */
+public class ConnectionAdmissionPostProcessor implements BeanPostProcessor, MeterBinder {
+    private final int maxWaiters;
+    // Pools may be wrapped before or after the registry is bound
+    private final Map<String, ConnectionAdmissionDataSource> pools = new LinkedHashMap<>();
+    private final List<MeterRegistry> registries = new ArrayList<>();
+
+    public ConnectionAdmissionPostProcessor(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof ReplicaRoutingDataSource routing)
+            routing.decorateReplicas(this::admit);
+
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                && !(bean instanceof AbstractRoutingDataSource)) {
+            String pool = bean instanceof HikariDataSource hikari && hikari.getPoolName() != null
+                    ? hikari.getPoolName()
+                    : beanName;
+
+            return admit(pool, dataSource);
+        }
+
+        return bean;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        pools.forEach((pool, dataSource) -> register(registry, pool, dataSource));
+    }
+
+    private synchronized DataSource admit(String pool, DataSource dataSource) {
+        ConnectionAdmissionDataSource admission = new ConnectionAdmissionDataSource(dataSource, maxWaiters);
+        pools.put(pool, admission);
+        registries.forEach(registry -> register(registry, pool, admission));
+
+        return admission;
+    }
+
+    private static void register(MeterRegistry registry, String pool, ConnectionAdmissionDataSource dataSource) {
+        FunctionCounter.builder("jdbc.connections.rejected", dataSource, ConnectionAdmissionDataSource::getRejectedCount)
+                .description("Connection requests refused because too many were already waiting")
+                .tag("pool", pool)
+                .register(registry);
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Sends read-only transactions to the replicas in turn and everything else to the primary.
+ * <p>
+ * The routing key is read when the first statement needs a connection, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for a connection before the transaction is marked read-only.
+ * <p>
+ * {@link #checkLag()} measures every replica with {@code lagQuery}. A replica further behind than
+ * {@code maxLag}, or one that cannot be queried, gets no reads until it catches up; with no replica
+ * left, reads go to the primary. Decisions are counted in {@code app.datasource.routing} by target and
+ * reason, and the measured lag is published as {@code app.datasource.replica.lag}.
+ * <p>
+ * For {@code primaryAfterWrite} after a write transaction of this instance commits, reads stay on the
+ * primary as well. Otherwise the response cache and the second-level cache, just invalidated by the
+ * write, could be filled again from a replica that has not replayed it yet and serve that until the
+ * next write.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    public static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final long primaryAfterWriteNanos;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryWrites;
+    private final Counter primaryFallbacks;
+    private final Counter primaryAfterWrites;
+    // System.nanoTime() until which reads stay on the primary
+    private volatile long primaryUntil = System.nanoTime();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                                    Duration primaryAfterWrite, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(dataSource -> new Replica(dataSource, meterRegistry)).toList();
+        this.maxLag = maxLag;
+        this.primaryAfterWriteNanos = primaryAfterWrite.toNanos();
+        this.lagQuery = lagQuery;
+        this.primaryWrites = routingCounter(meterRegistry, PRIMARY, "write");
+        this.primaryFallbacks = routingCounter(meterRegistry, PRIMARY, "fallback");
+        this.primaryAfterWrites = routingCounter(meterRegistry, PRIMARY, "after-write");
+
+        setTargets();
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Replaces what reads are routed to for every replica, given its pool name and pool. Takes effect in
+     * {@link #afterPropertiesSet()}; the lag check keeps querying the pools themselves.
+     */
+    public void decorateReplicas(BiFunction<String, DataSource, DataSource> decorator) {
+        replicas.forEach(replica -> replica.target = decorator.apply(replica.name, replica.pool));
+        setTargets();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive())
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        primaryUntil = System.nanoTime() + primaryAfterWriteNanos;
+                    }
+                });
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+
+        if (System.nanoTime() - primaryUntil < 0) {
+            primaryAfterWrites.increment();
+            return PRIMARY;
+        }
+
+        // Round robin, skipping replicas that are behind
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+
+            if (replica.available) {
+                replica.reads.increment();
+                return replica.name;
+            }
+        }
+
+        primaryFallbacks.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval:PT5S}",
+            initialDelayString = "${app.datasource.lag-check-interval:PT5S}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            double lag = measureLag(replica);
+            boolean available = !Double.isNaN(lag) && lag <= maxLag.toMillis() / 1000.0;
+
+            if (available != replica.available) {
+                if (available)
+                    log.info("Replica {} is back with lag {} s, routing reads to it", replica.name, lag);
+                else
+                    log.warn("Replica {} is unavailable or {} s behind, routing its reads elsewhere", replica.name, lag);
+            }
+            replica.lag = lag;
+            replica.available = available;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private void setTargets() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name, replica.target));
+        setTargetDataSources(targets);
+    }
+
+    // Seconds behind the primary, NaN if the replica cannot be queried
+    private double measureLag(Replica replica) {
+        try (Connection connection = replica.pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next())
+                return 0;
+
+            double lag = resultSet.getDouble(1);
+            return resultSet.wasNull() ? 0 : lag;
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not measure the lag of replica {}", replica.name, e);
+            return Double.NaN;
+        }
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("app.datasource.routing")
+                .description("Connections handed out by target; fallback means a read went to the primary")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final Counter reads;
+        private DataSource target;
+        private volatile double lag = Double.NaN;
+        private volatile boolean available;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+            this.target = pool;
+            this.reads = routingCounter(meterRegistry, name, "read");
+
+            Gauge.builder("app.datasource.replica.lag", this, replica -> replica.lag)
+                    .description("Seconds the replica is behind the primary, NaN if it cannot be reached")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("app.datasource.replica.available", this, replica -> replica.available ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+import java.time.Duration;
+
+public class AuthenticationBusyException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public AuthenticationBusyException(Duration retryAfter) {
+        super("Authentication is temporarily overloaded, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+public class FileTooLargeException extends RuntimeException {
+    public FileTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,4 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+public class ImageNotFoundException extends RuntimeException {
+}
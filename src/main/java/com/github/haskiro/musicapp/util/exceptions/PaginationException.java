@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+public class PaginationException extends RuntimeException {
+    public PaginationException(String message) {
+        super(message);
+    }
+}
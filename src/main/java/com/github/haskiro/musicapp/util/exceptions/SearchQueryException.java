@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+public class SearchQueryException extends RuntimeException {
+    public SearchQueryException(String message) {
+        super(message);
+    }
+}
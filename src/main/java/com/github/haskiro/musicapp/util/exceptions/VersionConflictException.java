@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException() {
+        super("Resource has been modified since it was read");
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.haskiro.musicapp.util.pagination;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@link KeysetRequest#toPageable()}, i.e. at most limit + 1 rows.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, KeysetRequest request,
+                                       ToIntFunction<T> id, Function<T, OffsetDateTime> createdAt) {
+        if (rows.size() <= request.getLimit())
+            return new CursorPage<>(rows, null);
+
+        List<T> items = rows.subList(0, request.getLimit());
+        T last = items.get(items.size() - 1);
+
+        return new CursorPage<>(items,
+                KeysetRequest.encodeCursor(request.getSort(), id.applyAsInt(last), createdAt.apply(last)));
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.haskiro.musicapp.util.pagination;
+
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Parsed list request: sort order, page size and the position after which the
+ * next page starts. The position is carried between requests as an opaque
+ * Base64 token produced by {@link #encodeCursor}.
+ */
+public class KeysetRequest {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Sentinels used for the first page, so repositories need a single query per ordering
+    private static final OffsetDateTime MIN_CREATED_AT = OffsetDateTime.of(1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime MAX_CREATED_AT = OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final KeysetSort sort;
+    private final int limit;
+    private final int afterId;
+    private final OffsetDateTime afterCreatedAt;
+
+    private KeysetRequest(KeysetSort sort, int limit, int afterId, OffsetDateTime afterCreatedAt) {
+        this.sort = sort;
+        this.limit = limit;
+        this.afterId = afterId;
+        this.afterCreatedAt = afterCreatedAt;
+    }
+
+    public static KeysetRequest of(String cursor, Integer limit, String sort) {
+        KeysetSort keysetSort = KeysetSort.fromParam(sort);
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+
+        if (pageSize < 1 || pageSize > MAX_LIMIT)
+            throw new PaginationException("Limit must be between 1 and " + MAX_LIMIT);
+
+        if (cursor == null || cursor.isBlank()) {
+            return new KeysetRequest(keysetSort, pageSize,
+                    keysetSort.isDescending() ? Integer.MAX_VALUE : Integer.MIN_VALUE,
+                    keysetSort.isDescending() ? MAX_CREATED_AT : MIN_CREATED_AT);
+        }
+
+        return decodeCursor(cursor, keysetSort, pageSize);
+    }
+
+    public static String encodeCursor(KeysetSort sort, int id, OffsetDateTime createdAt) {
+        String raw = sort.isByCreatedAt()
+                ? sort.getParam() + "|" + createdAt + "|" + id
+                : sort.getParam() + "|" + id;
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeysetRequest decodeCursor(String cursor, KeysetSort sort, int limit) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+
+            if (!parts[0].equals(sort.getParam()))
+                throw new PaginationException("Cursor was issued for a different sort order");
+
+            if (sort.isByCreatedAt() && parts.length == 3)
+                return new KeysetRequest(sort, limit, Integer.parseInt(parts[2]), OffsetDateTime.parse(parts[1]));
+
+            if (!sort.isByCreatedAt() && parts.length == 2)
+                return new KeysetRequest(sort, limit, Integer.parseInt(parts[1]), null);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // falls through to the generic error below
+        }
+
+        throw new PaginationException("Malformed cursor");
+    }
+
+    /**
+     * Fetches one row more than requested, the extra row only tells whether a next page exists.
+     */
+    public Pageable toPageable() {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Turns a user supplied filter into a case-insensitive LIKE pattern, or {@code null} if there is no filter.
+     */
+    public static String toLikePattern(String filter) {
+        if (filter == null || filter.isBlank())
+            return null;
+
+        String escaped = filter.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+
+        return "%" + escaped + "%";
+    }
+
+    public KeysetSort getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getAfterId() {
+        return afterId;
+    }
+
+    public OffsetDateTime getAfterCreatedAt() {
+        return afterCreatedAt;
+    }
+}
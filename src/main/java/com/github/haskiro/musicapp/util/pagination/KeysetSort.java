@@ -0,0 +1,42 @@
+package com.github.haskiro.musicapp.util.pagination;
+
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+
+/**
+ * Supported keyset orderings. Every ordering is total: {@code createdAt} is
+ * always paired with {@code id} as a tie-breaker, so a cursor identifies
+ * exactly one position in the result set.
+ */
+public enum KeysetSort {
+    ID_ASC("id"),
+    ID_DESC("-id"),
+    CREATED_AT_ASC("createdAt"),
+    CREATED_AT_DESC("-createdAt");
+
+    private final String param;
+
+    KeysetSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public boolean isByCreatedAt() {
+        return this == CREATED_AT_ASC || this == CREATED_AT_DESC;
+    }
+
+    public boolean isDescending() {
+        return this == ID_DESC || this == CREATED_AT_DESC;
+    }
+
+    public static KeysetSort fromParam(String param) {
+        for (KeysetSort sort : values()) {
+            if (sort.param.equals(param))
+                return sort;
+        }
+
+        throw new PaginationException("Unknown sort '" + param + "', expected one of id, -id, createdAt, -createdAt");
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.search;
+
+/**
+ * One search result: the entry's kind and id, the name it is listed under and its relevance.
+ */
+public record SearchHit(SearchType type, int id, String title, double rank) {
+}
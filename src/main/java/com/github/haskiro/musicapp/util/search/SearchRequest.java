@@ -0,0 +1,147 @@
+package com.github.haskiro.musicapp.util.search;
+
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.exceptions.SearchQueryException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed search request. The query is reduced to lower-case words of letters and digits, which every
+ * hit has to contain, the words of two or more characters as prefixes so that results follow typing.
+ * <p>
+ * Results are ordered by relevance, so pages are addressed by offset; the cursor carries the offset
+ * together with the query it was issued for. Offsets stop at {@link #MAX_OFFSET}: nobody pages that
+ * deep through ranked results and the database would rank every skipped row.
+ */
+public class SearchRequest {
+    public static final int MAX_QUERY_LENGTH = 200;
+    public static final int MAX_TERMS = 8;
+    public static final int MAX_OFFSET = 1000;
+    // Shorter terms would match a large share of the catalog as prefixes, so they must match whole words
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private final List<String> terms;
+    private final Set<SearchType> types;
+    private final int limit;
+    private final int offset;
+
+    private SearchRequest(List<String> terms, Set<SearchType> types, int limit, int offset) {
+        this.terms = terms;
+        this.types = types;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public static SearchRequest of(String query, List<String> types, String cursor, Integer limit) {
+        List<String> terms = parseTerms(query);
+        int pageSize = limit == null ? KeysetRequest.DEFAULT_LIMIT : limit;
+
+        if (pageSize < 1 || pageSize > KeysetRequest.MAX_LIMIT)
+            throw new PaginationException("Limit must be between 1 and " + KeysetRequest.MAX_LIMIT);
+
+        Set<SearchType> searchTypes = EnumSet.noneOf(SearchType.class);
+        if (types == null || types.isEmpty())
+            searchTypes.addAll(EnumSet.allOf(SearchType.class));
+        else
+            types.forEach(type -> searchTypes.add(SearchType.fromParam(type)));
+
+        int offset = cursor == null || cursor.isBlank() ? 0 : decodeCursor(cursor, terms);
+
+        return new SearchRequest(terms, searchTypes, pageSize, offset);
+    }
+
+    private static List<String> parseTerms(String query) {
+        if (query == null || query.isBlank())
+            throw new SearchQueryException("Query must not be empty");
+
+        if (query.length() > MAX_QUERY_LENGTH)
+            throw new SearchQueryException("Query must be at most " + MAX_QUERY_LENGTH + " characters");
+
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = WORD.matcher(query.toLowerCase(Locale.ROOT));
+        while (matcher.find() && terms.size() < MAX_TERMS) {
+            if (!terms.contains(matcher.group()))
+                terms.add(matcher.group());
+        }
+
+        if (terms.isEmpty())
+            throw new SearchQueryException("Query must contain a letter or a digit");
+
+        return Collections.unmodifiableList(terms);
+    }
+
+    private static int decodeCursor(String cursor, List<String> terms) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+
+            if (separator > 0) {
+                if (!raw.substring(0, separator).equals(String.join(" ", terms)))
+                    throw new PaginationException("Cursor was issued for a different query");
+
+                int offset = Integer.parseInt(raw.substring(separator + 1));
+                if (offset > 0 && offset <= MAX_OFFSET)
+                    return offset;
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the generic error below
+        }
+
+        throw new PaginationException("Malformed cursor");
+    }
+
+    /**
+     * Builds a page from at most limit + 1 rows; there is no next page past {@link #MAX_OFFSET}.
+     */
+    public CursorPage<SearchHit> toPage(List<SearchHit> rows) {
+        int next = offset + limit;
+
+        if (rows.size() <= limit || next > MAX_OFFSET)
+            return new CursorPage<>(rows.subList(0, Math.min(rows.size(), limit)), null);
+
+        String raw = String.join(" ", terms) + "|" + next;
+
+        return new CursorPage<>(rows.subList(0, limit),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The terms as a PostgreSQL {@code tsquery} source, e.g. {@code "love:* & u"}. Terms hold only letters
+     * and digits, so nothing in it needs quoting.
+     */
+    public String toTsQuery() {
+        return terms.stream()
+                .map(term -> term.length() >= MIN_PREFIX_LENGTH ? term + ":*" : term)
+                .collect(Collectors.joining(" & "));
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public Set<SearchType> getTypes() {
+        return types;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+}
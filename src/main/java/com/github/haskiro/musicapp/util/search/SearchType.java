@@ -0,0 +1,31 @@
+package com.github.haskiro.musicapp.util.search;
+
+import com.github.haskiro.musicapp.util.exceptions.SearchQueryException;
+
+/**
+ * Kinds of catalog entries returned by search, with the {@code type} parameter naming each.
+ */
+public enum SearchType {
+    TRACK("track"),
+    ARTIST("artist"),
+    ALBUM("album");
+
+    private final String param;
+
+    SearchType(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static SearchType fromParam(String param) {
+        for (SearchType type : values()) {
+            if (type.param.equals(param))
+                return type;
+        }
+
+        throw new SearchQueryException("Unknown type '" + param + "', expected one of track, artist, album");
+    }
+}
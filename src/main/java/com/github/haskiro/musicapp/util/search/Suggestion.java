@@ -0,0 +1,7 @@
+package com.github.haskiro.musicapp.util.search;
+
+/**
+ * An entry of a {@link TypeaheadIndex}: the id of an artist or track and the name it is found by.
+ */
+public record Suggestion(int id, String title) {
+}
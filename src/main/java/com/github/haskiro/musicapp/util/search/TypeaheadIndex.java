@@ -0,0 +1,473 @@
+package com.github.haskiro.musicapp.util.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process prefix index of titles for autocomplete. A title is found by a prefix of any of its first
+ * {@link #MAX_WORDS} words and the rest of the title after it, e.g. "Zyphor Rising" by "zyp" and by
+ * "ris". Matching ignores case, and any run of characters other than letters and digits counts as a
+ * single space.
+ * <p>
+ * Most entries live in an immutable snapshot: the titles and ids in two arrays, plus one {@code long} per
+ * indexed word (entry number and the word's offset in the title) sorted by the text from that word on.
+ * The text is read from the title itself while searching, so no normalized copy is kept. Changes go to a
+ * small sorted overlay, and ids changed since the snapshot was built are hidden in it; once the overlay
+ * outgrows {@code compactionThreshold} (or an eighth of the snapshot) the two are merged into a new
+ * snapshot.
+ * <p>
+ * Lookups take no lock; one that runs while an entry is being changed may miss that entry. Changes are
+ * serialized.
+ */
+public class TypeaheadIndex {
+    public static final int MAX_WORDS = 4;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final int compactionThreshold;
+    private volatile State state = State.empty(Snapshot.EMPTY);
+
+    public TypeaheadIndex(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Replaces the snapshot with the given entries. Changes made while they were being read from the
+     * database are kept: they are in the overlay and hide any older version in the new snapshot.
+     */
+    public void load(Collection<Suggestion> entries) {
+        Snapshot snapshot = Snapshot.build(entries);
+
+        synchronized (this) {
+            State current = state;
+            state = new State(snapshot, current.added(), current.addedTitles(), current.replaced());
+        }
+    }
+
+    public synchronized void put(int id, String title) {
+        State current = state;
+        removeFromOverlay(current, id);
+        current.replaced().add(id);
+
+        if (title != null) {
+            current.addedTitles().put(id, title);
+            for (int offset : wordOffsets(title)) {
+                current.added().put(overlayKey(normalize(title, offset), id), new Suggestion(id, title));
+            }
+        }
+
+        compactIfNeeded(current);
+    }
+
+    public synchronized void remove(int id) {
+        State current = state;
+        removeFromOverlay(current, id);
+        current.replaced().add(id);
+
+        compactIfNeeded(current);
+    }
+
+    /**
+     * Up to {@code limit} entries with a word starting with the query, in order of the text from that
+     * word on, so shorter completions come first.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = normalize(query, nextWordChar(query, 0));
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        if (prefix.isEmpty() || limit <= 0)
+            return suggestions;
+
+        State current = state;
+        Snapshot base = current.base();
+        Set<Integer> seen = new HashSet<>();
+
+        int position = base.lowerBound(prefix);
+        Iterator<Map.Entry<String, Suggestion>> overlay = current.added()
+                .subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet().iterator();
+        Map.Entry<String, Suggestion> nextAdded = overlay.hasNext() ? overlay.next() : null;
+
+        while (suggestions.size() < limit) {
+            // Skips the snapshot's entries that have been changed since
+            while (position < base.postings.length && base.startsWith(position, prefix)
+                    && current.replaced().contains(base.idAt(position))) {
+                position++;
+            }
+            boolean baseHasNext = position < base.postings.length && base.startsWith(position, prefix);
+
+            if (!baseHasNext && nextAdded == null)
+                break;
+
+            Suggestion suggestion;
+            if (nextAdded == null || baseHasNext && base.compareTo(position, nextAdded) <= 0) {
+                suggestion = base.suggestionAt(position++);
+            } else {
+                suggestion = nextAdded.getValue();
+                nextAdded = overlay.hasNext() ? overlay.next() : null;
+            }
+
+            if (seen.add(suggestion.id()))
+                suggestions.add(suggestion);
+        }
+
+        return suggestions;
+    }
+
+    // Approximate: ids added since the last snapshot are counted as if they replaced one of its entries
+    public int size() {
+        State current = state;
+
+        return current.base().ids.length - current.replaced().size() + current.addedTitles().size();
+    }
+
+    private void removeFromOverlay(State current, int id) {
+        String title = current.addedTitles().remove(id);
+        if (title == null)
+            return;
+
+        for (int offset : wordOffsets(title)) {
+            current.added().remove(overlayKey(normalize(title, offset), id));
+        }
+    }
+
+    private void compactIfNeeded(State current) {
+        int overlaySize = current.addedTitles().size() + current.replaced().size();
+        if (overlaySize <= Math.max(compactionThreshold, current.base().ids.length / 8))
+            return;
+
+        state = State.empty(Snapshot.merge(current.base(), current.replaced(), current.addedTitles()));
+    }
+
+    // Normalized text, then the id as two chars so that equal texts are in id order as in the snapshot
+    private static String overlayKey(String text, int id) {
+        return text + KEY_SEPARATOR + (char) (id >>> 16) + (char) id;
+    }
+
+    // Offsets of the first MAX_WORDS words
+    static int[] wordOffsets(String title) {
+        int[] offsets = new int[MAX_WORDS];
+        int count = 0;
+
+        for (int i = 0; i < title.length() && count < MAX_WORDS; i++) {
+            if (isWordChar(title.charAt(i)) && (i == 0 || !isWordChar(title.charAt(i - 1))))
+                offsets[count++] = i;
+        }
+
+        return count == MAX_WORDS ? offsets : Arrays.copyOf(offsets, count);
+    }
+
+    static String normalize(String text, int from) {
+        StringBuilder normalized = new StringBuilder(text.length() - from);
+
+        for (int p = from; ; p = advance(text, p)) {
+            int c = normalizedChar(text, p);
+            if (c < 0)
+                return normalized.toString();
+
+            normalized.append((char) c);
+        }
+    }
+
+    // The normalized text is read straight from the title: position p yields its lower-cased character,
+    // or one space for a run of other characters followed by a word, or -1 at the end.
+    private static int normalizedChar(String text, int p) {
+        if (p >= text.length())
+            return -1;
+
+        char c = text.charAt(p);
+        if (isWordChar(c))
+            return Character.toLowerCase(c);
+
+        return nextWordChar(text, p) < text.length() ? ' ' : -1;
+    }
+
+    private static int advance(String text, int p) {
+        return isWordChar(text.charAt(p)) ? p + 1 : nextWordChar(text, p);
+    }
+
+    private static int nextWordChar(String text, int p) {
+        while (p < text.length() && !isWordChar(text.charAt(p))) {
+            p++;
+        }
+
+        return p;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static int compare(String a, int i, String b, int j) {
+        while (true) {
+            // Same character in both titles, the common case between neighbours in sorted order
+            if (i < a.length() && j < b.length() && a.charAt(i) == b.charAt(j) && isWordChar(a.charAt(i))) {
+                i++;
+                j++;
+                continue;
+            }
+
+            int ca = normalizedChar(a, i);
+            int cb = normalizedChar(b, j);
+
+            if (ca != cb)
+                return Integer.compare(ca, cb);
+            if (ca < 0)
+                return 0;
+
+            i = advance(a, i);
+            j = advance(b, j);
+        }
+    }
+
+    // Negative if the text from p sorts before the prefix, 0 if it starts with it
+    private static int compareToPrefix(String text, int p, String prefix) {
+        for (int k = 0; k < prefix.length(); k++) {
+            int c = normalizedChar(text, p);
+
+            if (c != prefix.charAt(k))
+                return c < 0 ? -1 : Integer.compare(c, prefix.charAt(k));
+
+            p = advance(text, p);
+        }
+
+        return 0;
+    }
+
+    private record State(Snapshot base, ConcurrentSkipListMap<String, Suggestion> added,
+                         Map<Integer, String> addedTitles, Set<Integer> replaced) {
+        static State empty(Snapshot base) {
+            return new State(base, new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>(),
+                    ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new int[0], new String[0], new long[0]);
+
+        final int[] ids;
+        final String[] titles;
+        // Entry number in the high half, offset of the word in the title in the low half
+        final long[] postings;
+
+        private Snapshot(int[] ids, String[] titles, long[] postings) {
+            this.ids = ids;
+            this.titles = titles;
+            this.postings = postings;
+        }
+
+        static Snapshot build(Collection<Suggestion> entries) {
+            // The last title given for an id wins
+            Map<Integer, String> titlesById = new HashMap<>(entries.size() * 2);
+            for (Suggestion entry : entries) {
+                if (entry.title() != null)
+                    titlesById.put(entry.id(), entry.title());
+            }
+
+            int[] ids = new int[titlesById.size()];
+            String[] titles = new String[titlesById.size()];
+            int count = 0;
+            int postingCount = 0;
+            for (Map.Entry<Integer, String> entry : titlesById.entrySet()) {
+                ids[count] = entry.getKey();
+                titles[count++] = entry.getValue();
+                postingCount += wordOffsets(entry.getValue()).length;
+            }
+
+            long[] postings = new long[postingCount];
+            int position = 0;
+            for (int entry = 0; entry < count; entry++) {
+                for (int offset : wordOffsets(titles[entry])) {
+                    postings[position++] = (long) entry << 32 | offset;
+                }
+            }
+
+            Snapshot snapshot = new Snapshot(ids, titles, postings);
+            snapshot.sortPostings();
+
+            return snapshot;
+        }
+
+        /*
+         * The snapshot's postings are already in order, so only the overlay's are sorted and the two are
+         * merged in one pass. This runs while changes wait on the lock, and a full rebuild of a million
+         * titles takes seconds.
+         */
+        static Snapshot merge(Snapshot base, Set<Integer> replaced, Map<Integer, String> addedTitles) {
+            List<Suggestion> entries = new ArrayList<>(addedTitles.size());
+            addedTitles.forEach((id, title) -> entries.add(new Suggestion(id, title)));
+            Snapshot added = build(entries);
+
+            int[] newEntry = new int[base.ids.length];
+            int kept = 0;
+            for (int entry = 0; entry < base.ids.length; entry++) {
+                newEntry[entry] = replaced.contains(base.ids[entry]) ? -1 : kept++;
+            }
+
+            int[] ids = new int[kept + added.ids.length];
+            String[] titles = new String[ids.length];
+            for (int entry = 0; entry < base.ids.length; entry++) {
+                if (newEntry[entry] >= 0) {
+                    ids[newEntry[entry]] = base.ids[entry];
+                    titles[newEntry[entry]] = base.titles[entry];
+                }
+            }
+            System.arraycopy(added.ids, 0, ids, kept, added.ids.length);
+            System.arraycopy(added.titles, 0, titles, kept, added.titles.length);
+
+            int keptPostings = 0;
+            for (long posting : base.postings) {
+                if (newEntry[entry(posting)] >= 0)
+                    keptPostings++;
+            }
+
+            Snapshot merged = new Snapshot(ids, titles, new long[keptPostings + added.postings.length]);
+            int position = 0;
+            int left = 0;
+            int right = 0;
+            while (position < merged.postings.length) {
+                while (left < base.postings.length && newEntry[entry(base.postings[left])] < 0) {
+                    left++;
+                }
+
+                long fromBase = left < base.postings.length
+                        ? (long) newEntry[entry(base.postings[left])] << 32 | offset(base.postings[left]) : -1;
+                long fromAdded = right < added.postings.length
+                        ? (long) (entry(added.postings[right]) + kept) << 32 | offset(added.postings[right]) : -1;
+
+                if (fromAdded < 0 || fromBase >= 0 && merged.comparePostings(fromBase, fromAdded) <= 0) {
+                    merged.postings[position++] = fromBase;
+                    left++;
+                } else {
+                    merged.postings[position++] = fromAdded;
+                    right++;
+                }
+            }
+
+            return merged;
+        }
+
+        int idAt(int position) {
+            return ids[entry(postings[position])];
+        }
+
+        Suggestion suggestionAt(int position) {
+            int entry = entry(postings[position]);
+
+            return new Suggestion(ids[entry], titles[entry]);
+        }
+
+        int compareTo(int position, Map.Entry<String, Suggestion> overlayEntry) {
+            String key = overlayEntry.getKey();
+            int byText = normalize(titles[entry(postings[position])], offset(postings[position]))
+                    .compareTo(key.substring(0, key.length() - 3));
+
+            return byText != 0 ? byText : Integer.compare(idAt(position), overlayEntry.getValue().id());
+        }
+
+        boolean startsWith(int position, String prefix) {
+            long posting = postings[position];
+
+            return compareToPrefix(titles[entry(posting)], offset(posting), prefix) == 0;
+        }
+
+        // First posting whose text does not sort before the prefix
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = postings.length;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                long posting = postings[middle];
+
+                if (compareToPrefix(titles[entry(posting)], offset(posting), prefix) < 0)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+
+            return low;
+        }
+
+        private int comparePostings(long a, long b) {
+            int byText = compare(titles[entry(a)], offset(a), titles[entry(b)], offset(b));
+
+            return byText != 0 ? byText : Integer.compare(ids[entry(a)], ids[entry(b)]);
+        }
+
+        // First nine normalized characters of the text from the posting on, 7 bits each and 0 past the
+        // end; a character beyond ASCII is saturated to 127 and ends the key
+        private long sortKey(long posting) {
+            String title = titles[entry(posting)];
+            long key = 0;
+            int p = offset(posting);
+
+            for (int i = 0; i < 9; i++) {
+                int c = normalizedChar(title, p);
+
+                key = key << 7 | (c < 0 ? 0 : Math.min(c, 127));
+                if (c >= 0 && c < 127)
+                    p = advance(title, p);
+                else
+                    p = title.length();
+            }
+
+            return key;
+        }
+
+        /*
+         * Merge sort on primitive arrays, so sorting a million titles does not box every posting. Each
+         * posting carries a sort key while sorting, so most comparisons never read the titles.
+         */
+        private void sortPostings() {
+            long[] keys = new long[postings.length];
+            for (int i = 0; i < postings.length; i++) {
+                keys[i] = sortKey(postings[i]);
+            }
+            long[] buffer = new long[postings.length];
+            long[] keyBuffer = new long[postings.length];
+
+            for (int width = 1; width < postings.length; width *= 2) {
+                for (int low = 0; low < postings.length - width; low += 2 * width) {
+                    int middle = low + width;
+                    int high = Math.min(low + 2 * width, postings.length);
+
+                    if (compareSorting(keys, postings, middle - 1, keys, postings, middle) <= 0)
+                        continue;
+
+                    System.arraycopy(postings, low, buffer, low, high - low);
+                    System.arraycopy(keys, low, keyBuffer, low, high - low);
+                    for (int i = low, left = low, right = middle; i < high; i++) {
+                        int from = right >= high
+                                || left < middle && compareSorting(keyBuffer, buffer, left, keyBuffer, buffer, right) <= 0
+                                ? left++ : right++;
+
+                        postings[i] = buffer[from];
+                        keys[i] = keyBuffer[from];
+                    }
+                }
+            }
+        }
+
+        private int compareSorting(long[] keysA, long[] postingsA, int a, long[] keysB, long[] postingsB, int b) {
+            int byKey = Long.compareUnsigned(keysA[a], keysB[b]);
+
+            return byKey != 0 ? byKey : comparePostings(postingsA[a], postingsB[b]);
+        }
+
+        private static int entry(long posting) {
+            return (int) (posting >>> 32);
+        }
+
+        private static int offset(long posting) {
+            return (int) posting;
+        }
+    }
+}
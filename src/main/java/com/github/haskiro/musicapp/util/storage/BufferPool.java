@@ -0,0 +1,33 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed-size heap buffers shared by concurrent uploads or downloads. When the pool is empty a fresh buffer is
+ * allocated; only up to {@code capacity} buffers are kept for reuse.
+ */
+public class BufferPool {
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int bufferSize;
+
+    public BufferPool(int capacity, int bufferSize) {
+        this.buffers = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.bufferSize = bufferSize;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+
+        return buffer != null ? buffer.clear() : ByteBuffer.allocate(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+
+    int available() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.haskiro.musicapp.util.storage;
+
+/**
+ * Kinds of uploaded media; audio and images have separate size limits.
+ */
+public enum MediaKind {
+    TRACK_COVER(false),
+    TRACK_AUDIO(true),
+    ALBUM_COVER(false),
+    ARTIST_PHOTO(false),
+    USER_PHOTO(false);
+
+    private final boolean audio;
+
+    MediaKind(boolean audio) {
+        this.audio = audio;
+    }
+
+    public boolean isAudio() {
+        return audio;
+    }
+}
@@ -0,0 +1,301 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import com.github.haskiro.musicapp.util.exceptions.FileTooLargeException;
+import com.github.haskiro.musicapp.util.exceptions.FileUploadException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for uploaded media under {@code upload.path}/media.
+ * <p>
+ * A blob lives at {@code media/<first two hex digits>/<sha256>.<ext>}, so identical uploads map to
+ * the same file whatever entity or field they are attached to. The body is copied through a pooled
+ * buffer into a temp file while its SHA-256 is computed; if the blob already exists the temp file
+ * is dropped, otherwise it is renamed into place. Size limits are checked against the declared
+ * length before anything is read and against the bytes actually written while copying.
+ * <p>
+ * Blobs are never deleted on upload. {@link #sweep} removes those no longer referenced, skipping
+ * anything stored or reused within the grace period so in-flight transactions keep their files.
+ */
+@Component
+@Timed("app.media.storage")
+public class MediaStorage {
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+
+    private final Path mediaRoot;
+    private final Path incoming;
+    private final long maxImageSize;
+    private final long maxAudioSize;
+    private final Duration grace;
+    private final BufferPool bufferPool;
+    // Blobs handed out recently; the sweeper leaves them alone until their grace period ends
+    private final Map<Path, Long> recent = new ConcurrentHashMap<>();
+    // Uploads attach to a blob under the read lock, the sweeper deletes one under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MediaStorage(@Value("${upload.path}") String uploadPath,
+                        @Value("${app.upload.max-image-size:10MB}") DataSize maxImageSize,
+                        @Value("${app.upload.max-audio-size:200MB}") DataSize maxAudioSize,
+                        @Value("${app.upload.buffer-size:64KB}") DataSize bufferSize,
+                        @Value("${app.upload.pooled-buffers:32}") int pooledBuffers,
+                        @Value("${app.upload.sweep.grace:PT1H}") Duration grace) {
+        this.mediaRoot = Paths.get(uploadPath).resolve("media");
+        this.incoming = mediaRoot.resolve(".incoming");
+        this.maxImageSize = maxImageSize.toBytes();
+        this.maxAudioSize = maxAudioSize.toBytes();
+        this.grace = grace;
+        this.bufferPool = new BufferPool(pooledBuffers, (int) bufferSize.toBytes());
+    }
+
+    public StoredFile store(MediaKind kind, MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return store(kind, file.getOriginalFilename(), inputStream, file.getSize());
+        } catch (IOException e) {
+            throw new FileUploadException();
+        }
+    }
+
+    /**
+     * @param declaredSize the length announced by the client, or -1 if unknown
+     */
+    public StoredFile store(MediaKind kind, String originalFilename, InputStream inputStream, long declaredSize) {
+        long limit = limitFor(kind);
+        if (declaredSize > limit)
+            throw new FileTooLargeException("File exceeds " + limit + " bytes");
+
+        Path temp = null;
+        ByteBuffer buffer = bufferPool.acquire();
+
+        try {
+            Files.createDirectories(incoming);
+            temp = Files.createTempFile(incoming, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                byte[] array = buffer.array();
+                int read;
+
+                while ((read = inputStream.read(array, 0, array.length)) != -1) {
+                    size += read;
+                    if (size > limit)
+                        throw new FileTooLargeException("File exceeds " + limit + " bytes");
+
+                    digest.update(array, 0, read);
+                    buffer.clear().limit(read);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(sha256, extension(originalFilename));
+
+            lock.readLock().lock();
+            try {
+                recent.put(target, System.currentTimeMillis());
+                if (Files.notExists(target)) {
+                    Files.createDirectories(target.getParent());
+                    moveIntoPlace(temp, target);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            return new StoredFile(target, size, sha256);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new FileUploadException();
+        } finally {
+            bufferPool.release(buffer);
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Looks up a blob by its SHA-256 so that a client which already knows the hash can attach
+     * existing content without sending it again. Blobs are shared between kinds, so one is only
+     * returned if it fits {@code kind}: within its size limit, and not an image where audio is
+     * expected or the other way round.
+     */
+    public Optional<StoredFile> find(MediaKind kind, String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches())
+            return Optional.empty();
+
+        lock.readLock().lock();
+        try (DirectoryStream<Path> candidates = Files.newDirectoryStream(mediaRoot.resolve(sha256.substring(0, 2)),
+                sha256 + "*")) {
+            for (Path blob : candidates) {
+                long size = Files.size(blob);
+                if (!fits(kind, blob, size))
+                    return Optional.empty();
+
+                recent.put(blob, System.currentTimeMillis());
+
+                return Optional.of(new StoredFile(blob, size, sha256));
+            }
+
+            return Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The blob a path recorded by {@link #store} or {@link #find} refers to, or empty if the path does not
+     * lead to a regular file inside the media directory. Stored paths are serving paths, so anything else
+     * written to the database is never opened.
+     */
+    public Optional<Path> resolve(String storedPath) {
+        if (storedPath == null)
+            return Optional.empty();
+
+        try {
+            Path root = mediaRoot.toRealPath();
+            // Normalized and with links followed, so the check applies to the file that is actually opened
+            Path path = Paths.get(storedPath).toRealPath();
+
+            if (!path.startsWith(root) || path.startsWith(root.resolve(incoming.getFileName()))
+                    || !Files.isRegularFile(path))
+                return Optional.empty();
+
+            return Optional.of(path);
+        } catch (IOException | InvalidPathException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes every blob older than the grace period that {@code referenced} rejects, along with
+     * abandoned temp files.
+     *
+     * @return the number of blobs deleted
+     */
+    public int sweep(Predicate<Path> referenced) {
+        long cutoff = System.currentTimeMillis() - grace.toMillis();
+        recent.values().removeIf(storedAt -> storedAt < cutoff);
+
+        if (Files.notExists(mediaRoot))
+            return 0;
+
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(mediaRoot, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(file).toMillis() >= cutoff)
+                    continue;
+
+                if (file.getParent().equals(incoming)) {
+                    deleteQuietly(file);
+                    continue;
+                }
+
+                lock.writeLock().lock();
+                try {
+                    if (!recent.containsKey(file) && !referenced.test(file) && Files.deleteIfExists(file))
+                        deleted++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Directory prefix shared by every blob path, for narrowing reference lookups.
+     */
+    public String pathPrefix() {
+        return mediaRoot.toString();
+    }
+
+    long limitFor(MediaKind kind) {
+        return kind.isAudio() ? maxAudioSize : maxImageSize;
+    }
+
+    // A blob without a known extension is only checked against the size limit
+    private boolean fits(MediaKind kind, Path blob, long size) {
+        if (size > limitFor(kind))
+            return false;
+
+        return MediaTypeFactory.getMediaType(blob.getFileName().toString())
+                .map(type -> type.getType().equals(kind.isAudio() ? "audio" : "image"))
+                .orElse(true);
+    }
+
+    int availableBuffers() {
+        return bufferPool.available();
+    }
+
+    private Path blobPath(String sha256, String extension) {
+        String name = extension.isEmpty() ? sha256 : sha256 + "." + extension;
+
+        return mediaRoot.resolve(sha256.substring(0, 2)).resolve(name);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // The extension is kept so the content type can still be derived from the blob's name
+    private static String extension(String originalFilename) {
+        if (originalFilename == null)
+            return "";
+
+        String name = originalFilename.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        String extension = dot < 0 ? "" : name.substring(dot + 1).toLowerCase();
+
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null)
+            return;
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
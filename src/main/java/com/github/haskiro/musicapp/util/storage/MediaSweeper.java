@@ -0,0 +1,76 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically deletes blobs that no entity refers to any more.
+ * <p>
+ * References are counted from {@code Track.cover}, {@code Track.audioFile}, {@code Album.cover},
+ * {@code Artist.photo} and {@code User.photo} at sweep time rather than kept as counters, so
+ * entity deletes and cascades need no bookkeeping to stay correct.
+ */
+@Component
+public class MediaSweeper {
+    private static final Logger log = LoggerFactory.getLogger(MediaSweeper.class);
+
+    private static final List<String> REFERENCE_QUERIES = List.of(
+            "select t.cover, count(t) from Track t where t.cover like :prefix group by t.cover",
+            "select t.audioFile, count(t) from Track t where t.audioFile like :prefix group by t.audioFile",
+            "select a.cover, count(a) from Album a where a.cover like :prefix group by a.cover",
+            "select a.photo, count(a) from Artist a where a.photo like :prefix group by a.photo",
+            "select u.photo, count(u) from User u where u.photo like :prefix group by u.photo"
+    );
+
+    private final MediaStorage mediaStorage;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public MediaSweeper(MediaStorage mediaStorage, EntityManager entityManager) {
+        this.mediaStorage = mediaStorage;
+        this.entityManager = entityManager;
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.sweep.interval:PT1H}",
+            initialDelayString = "${app.upload.sweep.interval:PT1H}")
+    @Transactional(readOnly = true)
+    public int sweep() {
+        Map<String, Long> references = referenceCounts();
+        int deleted = mediaStorage.sweep(path -> references.containsKey(path.toString()));
+
+        if (deleted > 0)
+            log.info("Deleted {} unreferenced media blobs", deleted);
+
+        return deleted;
+    }
+
+    /**
+     * Number of entity fields pointing at each blob.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> referenceCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        String prefix = mediaStorage.pathPrefix() + "%";
+
+        for (String query : REFERENCE_QUERIES) {
+            List<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                    .setParameter("prefix", prefix)
+                    .getResultList();
+
+            for (Object[] row : rows) {
+                counts.merge((String) row[0], (Long) row[1], Long::sum);
+            }
+        }
+
+        return counts;
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import java.nio.file.Path;
+
+/**
+ * A file that has been completely written and moved into place, with the SHA-256 of its content.
+ */
+public record StoredFile(Path path, long size, String sha256) {
+}
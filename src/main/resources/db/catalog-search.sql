@@ -0,0 +1,13 @@
+-- GIN indexes behind GET /api/search on PostgreSQL, created at startup unless app.search.create-indexes
+-- is false. The expressions must stay the same as in FullTextSearchRepository.
+create index if not exists track_search_idx on track
+    using gin ((setweight(to_tsvector('simple', coalesce(title, '')), 'A')));
+
+create index if not exists artist_search_idx on artist
+    using gin ((setweight(to_tsvector('simple', coalesce(nickname, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(first_name, '') || ' ' || coalesce(last_name, '')), 'B') ||
+                setweight(to_tsvector('simple', coalesce(bio, '')), 'D')));
+
+create index if not exists album_search_idx on album
+    using gin ((setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(description, '')), 'D')));
@@ -0,0 +1,28 @@
+-- Moves track, artist and album ids from identity (or serial) columns to the sequences used by
+-- the pooled-lo generators (see JdbcBatchingConfig). Run once on PostgreSQL before starting the
+-- new version; it is safe to run again.
+--
+-- With pooled-lo the value returned by nextval is the first id of a block of 50, so each sequence
+-- is positioned right after the highest existing id.
+
+begin;
+
+alter table track alter column id drop identity if exists;
+alter table track alter column id drop default;
+create sequence if not exists track_id_seq;
+alter sequence track_id_seq increment by 50 owned by track.id;
+select setval('track_id_seq', coalesce(max(id), 0) + 1, false) from track;
+
+alter table artist alter column id drop identity if exists;
+alter table artist alter column id drop default;
+create sequence if not exists artist_id_seq;
+alter sequence artist_id_seq increment by 50 owned by artist.id;
+select setval('artist_id_seq', coalesce(max(id), 0) + 1, false) from artist;
+
+alter table album alter column id drop identity if exists;
+alter table album alter column id drop default;
+create sequence if not exists album_id_seq;
+alter sequence album_id_seq increment by 50 owned by album.id;
+select setval('album_id_seq', coalesce(max(id), 0) + 1, false) from album;
+
+commit;
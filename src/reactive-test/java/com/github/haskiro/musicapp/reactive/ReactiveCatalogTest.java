@@ -0,0 +1,147 @@
+package com.github.haskiro.musicapp.reactive;
+
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against H2 over R2DBC. The tables are created here, as the reactive application leaves the schema to
+ * the MVC application.
+ */
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-catalog;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureWebTestClient
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveCatalogTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private JwtService jwtService;
+
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        List.of(
+                "create table track (id int primary key, version bigint not null, title varchar(255), " +
+                        "cover varchar(255), audio_file varchar(255), released_at date, " +
+                        "created_at timestamp with time zone)",
+                "create table artist (id int primary key, version bigint not null, nickname varchar(255), " +
+                        "first_name varchar(255), last_name varchar(255), birth_date date, photo varchar(255), " +
+                        "bio varchar(255), created_at timestamp with time zone)",
+                "create table album (id int primary key, version bigint not null, title varchar(255), " +
+                        "description text, cover varchar(255), created_at timestamp with time zone)",
+                "create table album_track (album_id int not null, track_id int not null)",
+                "insert into track values (1, 0, 'First', null, null, date '2020-01-01', " +
+                        "timestamp with time zone '2023-01-03 00:00:00+00')",
+                "insert into track values (2, 1, 'Second', null, null, date '2020-01-02', " +
+                        "timestamp with time zone '2023-01-02 00:00:00+00')",
+                "insert into track values (3, 0, 'Third', null, null, date '2020-01-03', " +
+                        "timestamp with time zone '2023-01-01 00:00:00+00')",
+                "insert into artist values (1, 0, 'Nightjar', 'Ann', 'Lee', date '1990-01-01', null, '', " +
+                        "timestamp with time zone '2023-01-01 00:00:00+00')",
+                "insert into artist values (2, 0, 'Owl', 'Bob', 'Ray', date '1991-01-01', null, '', " +
+                        "timestamp with time zone '2023-01-01 00:00:00+00')",
+                "insert into album values (1, 0, 'Night Songs', 'Debut', null, " +
+                        "timestamp with time zone '2023-01-01 00:00:00+00')",
+                "insert into album_track values (1, 3)",
+                "insert into album_track values (1, 1)"
+        ).forEach(sql -> databaseClient.sql(sql).then().block());
+
+        token = jwtService.generateToken(UserDetailsImpl.of(1, "reader@example.com", Role.ROLE_USER));
+    }
+
+    @Test
+    void pagesFollowTheCursor() {
+        String firstPage = new String(get("/api/tracks?limit=2&sort=-createdAt")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].title").value(contains("First", "Second"))
+                .jsonPath("$.items[1].version").isEqualTo(1)
+                .returnResult().getResponseBodyContent());
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        get("/api/tracks?limit=2&sort=-createdAt&cursor=" + cursor)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].title").value(contains("Third"))
+                .jsonPath("$.nextCursor").doesNotExist();
+
+        get("/api/tracks?sort=id&cursor=" + cursor)
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cursor was issued for a different sort order");
+    }
+
+    @Test
+    void filtersArtistsByNickname() {
+        get("/api/artists?nickname=NIGHT")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].nickname").value(contains("Nightjar"))
+                .jsonPath("$.items[0].firstName").isEqualTo("Ann");
+    }
+
+    @Test
+    void exportsOneJsonDocumentPerTrack() {
+        String body = new String(get("/api/tracks/export")
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .expectBody().returnResult().getResponseBodyContent());
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].startsWith("{") && lines[2].contains("\"title\":\"Third\""));
+    }
+
+    @Test
+    void findsAlbumWithTracks() {
+        get("/api/albums/1")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Night Songs")
+                .jsonPath("$.tracks[*].title").value(contains("First", "Third"));
+
+        get("/api/albums/2")
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Album not found");
+    }
+
+    @Test
+    void refusesRequestsWithoutValidToken() {
+        webTestClient.get().uri("/api/tracks").exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/tracks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private WebTestClient.ResponseSpec get(String uri) {
+        return webTestClient.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange();
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.haskiro.musicapp.reactive;
+
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumDTO;
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import com.github.haskiro.musicapp.util.exceptions.AlbumNotFoundException;
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/albums")
+public class ReactiveAlbumController {
+    private final ReactiveCatalogRepository catalogRepository;
+
+    @Autowired
+    public ReactiveAlbumController(ReactiveCatalogRepository catalogRepository) {
+        this.catalogRepository = catalogRepository;
+    }
+
+    @GetMapping
+    public Mono<CursorPage<AlbumDTO>> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "limit", required = false) Integer limit,
+                                              @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                              @RequestParam(value = "title", required = false) String title) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return catalogRepository.findAlbumPage(request, title);
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE)
+    public Flux<AlbumDTO> export() {
+        return catalogRepository.streamAlbums();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<AlbumWithTracksDTO> findById(@PathVariable("id") int id) {
+        return catalogRepository.findAlbumWithTracks(id)
+                .switchIfEmpty(Mono.error(AlbumNotFoundException::new));
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(AlbumNotFoundException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Album not found",
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+}
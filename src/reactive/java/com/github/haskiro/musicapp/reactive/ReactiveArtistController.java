@@ -0,0 +1,56 @@
+package com.github.haskiro.musicapp.reactive;
+
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
+import com.github.haskiro.musicapp.util.ErrorResponse;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/artists")
+public class ReactiveArtistController {
+    private final ReactiveCatalogRepository catalogRepository;
+
+    @Autowired
+    public ReactiveArtistController(ReactiveCatalogRepository catalogRepository) {
+        this.catalogRepository = catalogRepository;
+    }
+
+    @GetMapping
+    public Mono<CursorPage<ArtistDTO>> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                               @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                               @RequestParam(value = "nickname", required = false) String nickname) {
+        KeysetRequest request = KeysetRequest.of(cursor, limit, sort);
+
+        return catalogRepository.findArtistPage(request, nickname);
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE)
+    public Flux<ArtistDTO> export() {
+        return catalogRepository.streamArtists();
+    }
+
+    @ExceptionHandler
+    private ResponseEntity<ErrorResponse> handleException(PaginationException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+}
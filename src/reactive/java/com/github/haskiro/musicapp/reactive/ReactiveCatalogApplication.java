@@ -0,0 +1,38 @@
+package com.github.haskiro.musicapp.reactive;
+
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Read-only catalog API on WebFlux and R2DBC, built with {@code mvn -Preactive package}.
+ * <p>
+ * Serves the track, artist and album lists, their NDJSON exports and album details with the same DTOs,
+ * cursors and tokens as the MVC application, which keeps every write. A few event loop threads serve any
+ * number of slow clients: rows are read from {@code spring.r2dbc.url} only as fast as the clients take
+ * them. JPA and the JDBC pool are left out.
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class
+})
+@Import(JwtService.class)
+public class ReactiveCatalogApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveCatalogApplication.class);
+        // Spring MVC is on the classpath as well
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.run(args);
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.haskiro.musicapp.reactive;
+
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumDTO;
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistDTO;
+import com.github.haskiro.musicapp.dto.trackDTO.TrackDTO;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Catalog reads over R2DBC, mapped straight to the DTOs of the MVC application. Pages follow the keyset
+ * orderings and cursors of {@link KeysetRequest}, so a cursor from either application works in the other.
+ */
+@Repository
+public class ReactiveCatalogRepository {
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveCatalogRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<CursorPage<TrackDTO>> findTrackPage(KeysetRequest request, String title) {
+        return findPage("track", "title", request, title, ReactiveCatalogRepository::toTrackDTO);
+    }
+
+    public Mono<CursorPage<ArtistDTO>> findArtistPage(KeysetRequest request, String nickname) {
+        return findPage("artist", "nickname", request, nickname, ReactiveCatalogRepository::toArtistDTO);
+    }
+
+    public Mono<CursorPage<AlbumDTO>> findAlbumPage(KeysetRequest request, String title) {
+        return findPage("album", "title", request, title, ReactiveCatalogRepository::toAlbumDTO);
+    }
+
+    public Flux<TrackDTO> streamTracks() {
+        return databaseClient.sql("select * from track order by id")
+                .map(ReactiveCatalogRepository::toTrackDTO)
+                .all();
+    }
+
+    public Flux<ArtistDTO> streamArtists() {
+        return databaseClient.sql("select * from artist order by id")
+                .map(ReactiveCatalogRepository::toArtistDTO)
+                .all();
+    }
+
+    public Flux<AlbumDTO> streamAlbums() {
+        return databaseClient.sql("select * from album order by id")
+                .map(ReactiveCatalogRepository::toAlbumDTO)
+                .all();
+    }
+
+    /**
+     * The album with its tracks, or an empty {@code Mono} if there is no such album.
+     */
+    public Mono<AlbumWithTracksDTO> findAlbumWithTracks(int id) {
+        Mono<AlbumWithTracksDTO> album = databaseClient.sql("select * from album where id = :id")
+                .bind("id", id)
+                .map(row -> {
+                    AlbumWithTracksDTO dto = new AlbumWithTracksDTO();
+                    dto.setId(row.get("id", Integer.class));
+                    dto.setVersion(row.get("version", Long.class));
+                    dto.setTitle(row.get("title", String.class));
+                    dto.setDescription(row.get("description", String.class));
+                    dto.setCover(row.get("cover", String.class));
+
+                    return dto;
+                })
+                .one();
+        Mono<Set<TrackDTO>> tracks = databaseClient.sql("select t.* from track t " +
+                        "join album_track r on r.track_id = t.id where r.album_id = :id order by t.id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toTrackDTO)
+                .all()
+                .collect(LinkedHashSet::new, Set::add);
+
+        return album.zipWith(tracks, (dto, albumTracks) -> {
+            dto.setTracks(albumTracks);
+            return dto;
+        });
+    }
+
+    private <T> Mono<CursorPage<T>> findPage(String table, String filterColumn, KeysetRequest request,
+                                             String filter, Function<Readable, T> mapper) {
+        String pattern = KeysetRequest.toLikePattern(filter);
+        String position = switch (request.getSort()) {
+            case ID_ASC -> "id > :id order by id asc";
+            case ID_DESC -> "id < :id order by id desc";
+            case CREATED_AT_ASC ->
+                    "(created_at > :createdAt or (created_at = :createdAt and id > :id)) order by created_at asc, id asc";
+            case CREATED_AT_DESC ->
+                    "(created_at < :createdAt or (created_at = :createdAt and id < :id)) order by created_at desc, id desc";
+        };
+        String sql = "select * from " + table + " where "
+                + (pattern == null ? "" : "lower(" + filterColumn + ") like :pattern escape '\\' and ")
+                + position + " limit :limit";
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("id", request.getAfterId())
+                .bind("limit", request.getLimit() + 1);
+        if (request.getSort().isByCreatedAt())
+            spec = spec.bind("createdAt", request.getAfterCreatedAt());
+        if (pattern != null)
+            spec = spec.bind("pattern", pattern);
+
+        return spec.map(row -> new Keyed<>(mapper.apply(row), row.get("id", Integer.class),
+                        row.get("created_at", OffsetDateTime.class)))
+                .all()
+                .collectList()
+                .map(rows -> CursorPage.of(rows, request, Keyed::id, Keyed::createdAt).map(Keyed::dto));
+    }
+
+    private static TrackDTO toTrackDTO(Readable row) {
+        TrackDTO dto = new TrackDTO();
+        dto.setId(row.get("id", Integer.class));
+        dto.setVersion(row.get("version", Long.class));
+        dto.setTitle(row.get("title", String.class));
+        dto.setCover(row.get("cover", String.class));
+        dto.setAudioFile(row.get("audio_file", String.class));
+        dto.setReleasedAt(row.get("released_at", LocalDate.class));
+
+        return dto;
+    }
+
+    private static ArtistDTO toArtistDTO(Readable row) {
+        ArtistDTO dto = new ArtistDTO();
+        dto.setId(row.get("id", Integer.class));
+        dto.setVersion(row.get("version", Long.class));
+        dto.setNickname(row.get("nickname", String.class));
+        dto.setFirstName(row.get("first_name", String.class));
+        dto.setLastName(row.get("last_name", String.class));
+        dto.setBirthDate(row.get("birth_date", LocalDate.class));
+        dto.setPhoto(row.get("photo", String.class));
+        dto.setBio(row.get("bio", String.class));
+
+        return dto;
+    }
+
+    private static AlbumDTO toAlbumDTO(Readable row) {
+        AlbumDTO dto = new AlbumDTO();
+        dto.setId(row.get("id", Integer.class));
+        dto.setVersion(row.get("version", Long.class));
+        dto.setTitle(row.get("title", String.class));
+        dto.setDescription(row.get("description", String.class));
+        dto.setCover(row.get("cover", String.class));
+
+        return dto;
+    }
+
+    private record Keyed<T>(T dto, int id, OffsetDateTime createdAt) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.User;
+import com.github.haskiro.musicapp.repositories.UserRepository;
+import com.github.haskiro.musicapp.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * One hashing thread and two queue slots, so a test can hold the pool busy while a request is in flight.
+ * The context has its own database so that its schema does not replace the shared one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-auth;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.auth.hashing.threads=1",
+        "app.auth.hashing.queue-capacity=2"
+})
+@AutoConfigureMockMvc
+class AsyncAuthenticationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Test
+    void releasesRequestThreadWhileThePasswordIsChecked() throws Exception {
+        saveUser("waiting@example.com");
+        CountDownLatch release = new CountDownLatch(1);
+        occupyHashingThread(release);
+
+        try {
+            MvcResult login = mockMvc.perform(login("waiting@example.com", "password123"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // perform() has returned although the hash is still queued behind the blocker
+            assertFalse(WebAsyncUtils.getAsyncManager(login.getRequest()).hasConcurrentResult());
+
+            MvcResult registration = mockMvc.perform(post("/api/auth/registration")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"queued@example.com\",\"firstName\":\"Queued\"," +
+                                    "\"lastName\":\"User\",\"password\":\"password123\"}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            assertFalse(WebAsyncUtils.getAsyncManager(registration.getRequest()).hasConcurrentResult());
+            assertFalse(userRepository.findByEmail("queued@example.com").isPresent());
+
+            release.countDown();
+            mockMvc.perform(asyncDispatch(login))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.token").isNotEmpty());
+            mockMvc.perform(asyncDispatch(registration))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.token").isNotEmpty());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void wrongPasswordIsRejectedAfterTheAsyncCheck() throws Exception {
+        saveUser("mistyped@example.com");
+
+        MvcResult result = mockMvc.perform(login("mistyped@example.com", "wrong-password"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void answersServiceUnavailableWhenHashingQueueIsFull() throws Exception {
+        saveUser("busy@example.com");
+        CountDownLatch release = new CountDownLatch(1);
+        occupyHashingThread(release);
+
+        try {
+            CompletableFuture<Void> queued = CompletableFuture.allOf(
+                    passwordHashingExecutor.submit("test", () -> null),
+                    passwordHashingExecutor.submit("test", () -> null));
+
+            mockMvc.perform(login("busy@example.com", "password123"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+            release.countDown();
+            queued.join();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void occupyHashingThread(CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        passwordHashingExecutor.submit("test", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return null;
+        });
+        started.await();
+    }
+
+    private void saveUser(String email) {
+        User user = new User(email, "First", "Last", null, null, passwordEncoder.encode("password123"));
+        user.setCreatedAt(OffsetDateTime.now());
+        user.setRole(Role.ROLE_USER);
+        userRepository.save(user);
+    }
+
+    private static MockHttpServletRequestBuilder login(String email, String password) {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class AudioStreamingTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] audio;
+    private Path file;
+    private int trackId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        audio = new byte[10_000];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (byte) i;
+        }
+        file = mediaStorage.store(MediaKind.TRACK_AUDIO, "track.mp3", new ByteArrayInputStream(audio), audio.length)
+                .path();
+
+        Track track = new Track("Streamed", null, file.toString(), LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+        trackId = trackRepository.save(track).getId();
+    }
+
+    @Test
+    void servesWholeFileWithValidators() throws Exception {
+        mockMvc.perform(get("/api/tracks/{id}/audio", trackId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, audio.length))
+                .andExpect(content().contentType("audio/mpeg"))
+                .andExpect(content().bytes(audio));
+    }
+
+    @Test
+    void servesSingleRangeAsPartialContent() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/tracks/{id}/audio", trackId)
+                        .header(HttpHeaders.RANGE, "bytes=4000-4999"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4000-4999/10000"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(Arrays.copyOfRange(audio, 4000, 5000), body);
+    }
+
+    @Test
+    void servesSuffixRange() throws Exception {
+        mockMvc.perform(get("/api/tracks/{id}/audio", trackId)
+                        .header(HttpHeaders.RANGE, "bytes=-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9900-9999/10000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(audio, 9900, 10000)));
+    }
+
+    @Test
+    void rejectsRangePastEnd() throws Exception {
+        mockMvc.perform(get("/api/tracks/{id}/audio", trackId)
+                        .header(HttpHeaders.RANGE, "bytes=10000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10000"));
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeIsStale() throws Exception {
+        mockMvc.perform(get("/api/tracks/{id}/audio", trackId)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, audio.length));
+    }
+
+    @Test
+    void answersNotModifiedForMatchingEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/tracks/{id}/audio", trackId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/tracks/{id}/audio", trackId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void returnsNotFoundWithoutAudio() throws Exception {
+        Track track = new Track("Silent", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+        int id = trackRepository.save(track).getId();
+
+        mockMvc.perform(get("/api/tracks/{id}/audio", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void returnsNotFoundForFilesOutsideMediaStorage() throws Exception {
+        Path outside = Files.write(tempDir.resolve("secret.mp3"), audio);
+        // Both temp directories live in java.io.tmpdir, so this climbs out of the media root into tempDir
+        String traversal = file.getParent() + "/../../../" + tempDir.getFileName() + "/secret.mp3";
+        assertTrue(Files.isSameFile(outside, Path.of(traversal)));
+
+        for (String audioFile : List.of(outside.toString(), traversal)) {
+            Track track = new Track("Escaping", null, audioFile, LocalDate.of(2020, 1, 1));
+            track.setCreatedAt(OffsetDateTime.now());
+            int id = trackRepository.save(track).getId();
+
+            mockMvc.perform(get("/api/tracks/{id}/audio", id))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updatesIgnoreAudioFile() throws Exception {
+        for (boolean conditional : new boolean[]{false, true}) {
+            Track track = new Track("Patched", null, file.toString(), LocalDate.of(2020, 1, 1));
+            track.setCreatedAt(OffsetDateTime.now());
+            int id = trackRepository.save(track).getId();
+
+            MockHttpServletRequestBuilder request = patch("/api/tracks/{id}", id)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"Patched\",\"releasedAt\":\"2020-01-01\",\"audioFile\":\"/etc/passwd\"}");
+            if (conditional)
+                request.header(HttpHeaders.IF_MATCH, "\"v0\"");
+            mockMvc.perform(request)
+                    .andExpect(status().isOk());
+
+            assertEquals(file.toString(), trackRepository.findById(id).orElseThrow().getAudioFile());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.util.AuthenticationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuthenticationFlowTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void registersAndLogsIn() {
+        Map<String, String> registration = Map.of(
+                "email", "async@example.com",
+                "firstName", "Async",
+                "lastName", "User",
+                "password", "password123");
+
+        ResponseEntity<AuthenticationResponse> registered = restTemplate.postForEntity(
+                "/api/auth/registration", registration, AuthenticationResponse.class);
+        assertEquals(HttpStatus.OK, registered.getStatusCode());
+        assertNotNull(registered.getBody().getToken());
+
+        ResponseEntity<AuthenticationResponse> loggedIn = restTemplate.postForEntity(
+                "/api/auth/login", Map.of("email", "async@example.com", "password", "password123"),
+                AuthenticationResponse.class);
+        assertEquals(HttpStatus.OK, loggedIn.getStatusCode());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(loggedIn.getBody().getToken());
+        ResponseEntity<String> export = restTemplate.exchange("/api/tracks/export", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, export.getStatusCode());
+    }
+
+    @Test
+    void rejectsWrongPassword() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/api/auth/login", Map.of("email", "nobody@example.com", "password", "password123"), String.class);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+}
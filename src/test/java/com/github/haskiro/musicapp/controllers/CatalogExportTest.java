@@ -0,0 +1,71 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogExportTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    @WithMockUser
+    void exportsOneJsonDocumentPerTrack() throws Exception {
+        long existing = trackRepository.count();
+        for (int i = 0; i < 3; i++) {
+            Track track = new Track("Export " + i, null, null, LocalDate.of(2020, 1, 1));
+            track.setCreatedAt(OffsetDateTime.now());
+            trackRepository.save(track);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/tracks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(existing + 3, lines.length);
+        assertTrue(lines[lines.length - 1].startsWith("{") && lines[lines.length - 1].contains("\"title\":\"Export 2\""));
+    }
+
+    // The JWT filter only runs on the original dispatch, so the async one has to be let through as it is
+    @Test
+    void asyncDispatchOfTokenAuthenticatedExportIsPermitted() throws Exception {
+        String token = jwtService.generateToken(UserDetailsImpl.of(1, "reader@example.com", Role.ROLE_USER));
+
+        MvcResult result = mockMvc.perform(get("/api/tracks/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+}
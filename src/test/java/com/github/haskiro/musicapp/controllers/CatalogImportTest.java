@@ -0,0 +1,117 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.util.NdjsonWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CatalogImportTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void importsReleaseAndReusesExistingArtistByNickname() throws Exception {
+        Artist existing = new Artist("importer", "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        existing.setTrackList(new HashSet<>());
+        int existingId = artistRepository.save(existing).getId();
+        // Puts the artist's (inverse side) track collection in the second-level cache
+        assertEquals(0, trackCount(existingId));
+
+        String release = """
+                {"ref": "cat-001", "title": "Imported", "artists": [
+                  {"nickname": "importer"},
+                  {"nickname": "guest", "firstName": "Guest", "lastName": "Artist", "birthDate": "1991-02-03"}
+                ], "tracks": [
+                  {"title": "Opening", "releasedAt": "2023-01-01"},
+                  {"title": "Feature", "releasedAt": "2023-01-01", "artists": ["guest"]}
+                ]}""";
+
+        String albumId = mockMvc.perform(post("/api/albums/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(release))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("created"))
+                .andExpect(jsonPath("$.ref").value("cat-001"))
+                .andExpect(jsonPath("$.tracks").value(2))
+                .andReturn().getResponse().getContentAsString().replaceAll(".*\"albumId\":(\\d+).*", "$1");
+
+        mockMvc.perform(get("/api/albums/{id}", albumId))
+                .andExpect(jsonPath("$.tracks[*].title", containsInAnyOrder("Opening", "Feature")));
+        mockMvc.perform(get("/api/artists/{id}", existingId))
+                .andExpect(jsonPath("$.tracks[*].title", containsInAnyOrder("Opening")));
+
+        assertEquals(1, trackCount(existingId));
+        assertEquals(1, artistRepository.findByNicknameInOrderByIdAsc(List.of("importer")).size());
+        assertEquals(1, artistRepository.findByNicknameInOrderByIdAsc(List.of("guest")).size());
+    }
+
+    @Test
+    void reportsEachNdjsonLineSeparately() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"ref\": \"ok\", \"title\": \"Good\", \"artists\": [{\"nickname\": \"solo\", \"firstName\": \"Solo\","
+                        + " \"lastName\": \"Artist\", \"birthDate\": \"1980-01-01\"}],"
+                        + " \"tracks\": [{\"title\": \"Only\", \"releasedAt\": \"2020-01-01\"}]}",
+                "{not json",
+                "",
+                "{\"ref\": \"no-title\", \"artists\": [{\"nickname\": \"solo\"}],"
+                        + " \"tracks\": [{\"title\": \"Only\", \"releasedAt\": \"2020-01-01\"}]}",
+                "{\"ref\": \"unknown-artist\", \"title\": \"Bad\", \"artists\": [{\"nickname\": \"nobody\"}],"
+                        + " \"tracks\": [{\"title\": \"Only\", \"releasedAt\": \"2020-01-01\"}]}");
+
+        String[] results = mockMvc.perform(post("/api/albums/import")
+                        .contentType(NdjsonWriter.MEDIA_TYPE)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(4, results.length);
+        assertTrue(results[0].contains("\"line\":1") && results[0].contains("\"status\":\"created\""), results[0]);
+        assertTrue(results[1].contains("\"line\":2") && results[1].contains("Malformed JSON"), results[1]);
+        assertTrue(results[2].contains("\"line\":4") && results[2].contains("title - Title must not be empty"),
+                results[2]);
+        assertTrue(results[3].contains("\"ref\":\"unknown-artist\"") && results[3].contains("artists[nobody]"),
+                results[3]);
+        assertEquals(0, artistRepository.findByNicknameInOrderByIdAsc(List.of("nobody")).size());
+    }
+
+    @Test
+    @WithMockUser
+    void requiresAdmin() throws Exception {
+        mockMvc.perform(post("/api/albums/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private int trackCount(int artistId) {
+        return transactionTemplate.execute(status ->
+                artistRepository.findById(artistId).orElseThrow().getTrackList().size());
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.config.jwt.JwtService;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Role;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.models.User;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.repositories.UserRepository;
+import com.github.haskiro.musicapp.security.UserDetailsImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConditionalUpdateTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void ifMatchUpdatesInOneStatementAndRejectsStaleTag() throws Exception {
+        Artist artist = new Artist("tagged", "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        artist.setTrackList(new HashSet<>());
+        int id = artistRepository.save(artist).getId();
+
+        String etag = mockMvc.perform(get("/api/artists/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("\"v0-"), etag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(patchArtist(id, "renamed").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(patchArtist(id, "lost update").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+
+        String newEtag = mockMvc.perform(get("/api/artists/{id}", id))
+                .andExpect(jsonPath("$.nickname").value("renamed"))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(newEtag.startsWith("\"v1-"), newEtag);
+    }
+
+    @Test
+    void updateWithoutIfMatchStillBumpsVersion() throws Exception {
+        Track track = new Track("Unconditional", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+        int id = trackRepository.save(track).getId();
+
+        mockMvc.perform(patchTrack(id, "Changed once"))
+                .andExpect(status().isOk());
+        assertEquals(1, trackRepository.findById(id).orElseThrow().getVersion());
+
+        mockMvc.perform(patchTrack(id, "Stale").header(HttpHeaders.IF_MATCH, "\"v0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patchTrack(id, "Weak").header(HttpHeaders.IF_MATCH, "W/\"v1\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patchTrack(id, "Changed twice").header(HttpHeaders.IF_MATCH, "\"v1\""))
+                .andExpect(status().isOk());
+
+        Track updated = trackRepository.findById(id).orElseThrow();
+        assertEquals("Changed twice", updated.getTitle());
+        assertEquals(2, updated.getVersion());
+    }
+
+    @Test
+    void missingEntityIsNotFoundRatherThanConflict() throws Exception {
+        mockMvc.perform(patchTrack(Integer.MAX_VALUE, "Nowhere").header(HttpHeaders.IF_MATCH, "\"v0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void userDetailIsTaggedWithVersion() throws Exception {
+        User user = new User("versioned@example.com", "First", "Last", null, null, "secret");
+        user.setCreatedAt(OffsetDateTime.now());
+        int id = userRepository.save(user).getId();
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v0\""));
+        mockMvc.perform(get("/api/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"v0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/users/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"renamed@example.com\",\"firstName\":\"First\",\"lastName\":\"Last\"}"))
+                .andExpect(status().isOk());
+
+        User updated = userRepository.findById(id).orElseThrow();
+        assertEquals("renamed@example.com", updated.getEmail());
+        assertEquals("secret", updated.getPassword());
+        assertEquals(1, updated.getVersion());
+    }
+
+    // The old email's principal was never cached, so only a revocation can stop its tokens
+    @Test
+    void emailChangeThroughIfMatchRevokesTokensOfPreviousEmail() throws Exception {
+        User user = new User("before@example.com", "First", "Last", null, null, "secret");
+        user.setCreatedAt(OffsetDateTime.now());
+        user.setRole(Role.ROLE_USER);
+        userRepository.save(user);
+        String oldToken = jwtService.generateToken(new UserDetailsImpl(user));
+
+        mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"after@example.com\",\"firstName\":\"First\",\"lastName\":\"Last\"}"))
+                .andExpect(status().isOk());
+        String newToken = jwtService.generateToken(new UserDetailsImpl(userRepository.findById(user.getId()).orElseThrow()));
+
+        // Authenticate by token alone from here on
+        TestSecurityContextHolder.clearContext();
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + newToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + oldToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private static MockHttpServletRequestBuilder patchArtist(int id, String nickname) {
+        return patch("/api/artists/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nickname\":\"" + nickname + "\",\"firstName\":\"First\",\"lastName\":\"Last\"," +
+                        "\"birthDate\":\"1990-01-01\",\"bio\":\"\"}");
+    }
+
+    private static MockHttpServletRequestBuilder patchTrack(int id, String title) {
+        return patch("/api/tracks/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"releasedAt\":\"2020-01-01\"}");
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.models.User;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.repositories.UserRepository;
+import com.github.haskiro.musicapp.util.storage.MediaKind;
+import com.github.haskiro.musicapp.util.storage.MediaStorage;
+import com.github.haskiro.musicapp.util.storage.StoredFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class MediaAttachTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MediaStorage mediaStorage;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private StoredFile cover;
+    private StoredFile audio;
+
+    @BeforeEach
+    void setUp() {
+        cover = mediaStorage.store(MediaKind.ALBUM_COVER, "cover.jpg",
+                new ByteArrayInputStream("shared cover".getBytes()), -1);
+        audio = mediaStorage.store(MediaKind.TRACK_AUDIO, "song.mp3",
+                new ByteArrayInputStream("not a cover".getBytes()), -1);
+    }
+
+    @Test
+    void attachesStoredImagesByHash() throws Exception {
+        int trackId = trackRepository.save(newTrack()).getId();
+        int albumId = albumRepository.save(newAlbum()).getId();
+        int artistId = artistRepository.save(newArtist()).getId();
+        int userId = userRepository.save(newUser("attached@example.com")).getId();
+
+        mockMvc.perform(put("/api/tracks/{id}/cover", trackId).param("sha256", cover.sha256()))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/albums/{id}/cover", albumId).param("sha256", cover.sha256()))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/artists/{id}/photo", artistId).param("sha256", cover.sha256()))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/users/{id}/photo", userId).param("sha256", cover.sha256()))
+                .andExpect(status().isOk());
+
+        String path = cover.path().toString();
+        assertEquals(path, trackRepository.findById(trackId).orElseThrow().getCover());
+        assertEquals(path, albumRepository.findById(albumId).orElseThrow().getCover());
+        assertEquals(path, artistRepository.findById(artistId).orElseThrow().getPhoto());
+        assertEquals(path, userRepository.findById(userId).orElseThrow().getPhoto());
+    }
+
+    @Test
+    void unknownHashesAndAudioAreNotFound() throws Exception {
+        int trackId = trackRepository.save(newTrack()).getId();
+        int userId = userRepository.save(newUser("unattached@example.com")).getId();
+
+        mockMvc.perform(put("/api/tracks/{id}/cover", trackId).param("sha256", "0".repeat(64)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/tracks/{id}/cover", trackId).param("sha256", audio.sha256()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/users/{id}/photo", userId).param("sha256", audio.sha256()))
+                .andExpect(status().isNotFound());
+
+        assertNull(trackRepository.findById(trackId).orElseThrow().getCover());
+        assertNull(userRepository.findById(userId).orElseThrow().getPhoto());
+    }
+
+    @Test
+    @WithMockUser
+    void catalogImagesRequireAdmin() throws Exception {
+        int albumId = albumRepository.save(newAlbum()).getId();
+
+        mockMvc.perform(put("/api/albums/{id}/cover", albumId).param("sha256", cover.sha256()))
+                .andExpect(status().isForbidden());
+    }
+
+    private static Track newTrack() {
+        Track track = new Track("Covered", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+
+        return track;
+    }
+
+    private static Album newAlbum() {
+        Album album = new Album("Covered", "", null);
+        album.setCreatedAt(OffsetDateTime.now());
+
+        return album;
+    }
+
+    private static Artist newArtist() {
+        Artist artist = new Artist("pictured", "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        artist.setTrackList(new HashSet<>());
+
+        return artist;
+    }
+
+    private static User newUser(String email) {
+        User user = new User(email, "First", "Last", null, null, "secret");
+        user.setCreatedAt(OffsetDateTime.now());
+
+        return user;
+    }
+}
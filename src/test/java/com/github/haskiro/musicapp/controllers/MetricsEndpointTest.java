@@ -0,0 +1,43 @@
+package com.github.haskiro.musicapp.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    void exportsRequestServiceRepositoryPoolAndHibernateMeters() throws Exception {
+        mockMvc.perform(get("/api/tracks"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_count{"),
+                        containsString("uri=\"/api/tracks\""),
+                        containsString("app_service_seconds_count{class=\"com.github.haskiro.musicapp.services.TrackService\""),
+                        containsString("spring_data_repository_invocations_seconds_count{"),
+                        containsString("hikaricp_connections_active{"),
+                        containsString("hibernate_statements_total{"),
+                        containsString("auth_password_hash_seconds_count{"),
+                        containsString("auth_jwt_verify_seconds_count{cache=\"miss\""))));
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class RelationEndpointsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void linkingTracksDoesNotDependOnCatalogSize() throws Exception {
+        Artist artist = artistRepository.save(newArtist("prolific"));
+        List<Track> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Track track = newTrack("Old " + i);
+            track.setArtistList(Set.of(artist));
+            catalog.add(track);
+        }
+        trackRepository.saveAll(catalog);
+        List<Integer> ids = List.of(
+                trackRepository.save(newTrack("New 1")).getId(),
+                trackRepository.save(newTrack("New 2")).getId());
+        // Cached entities must survive the native insert; only the artist_track collections are evicted
+        artistRepository.findById(artist.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Artist.class, artist.getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(relate(post("/api/artists/{id}/tracks", artist.getId()), ids.get(0), ids.get(1), ids.get(1)))
+                .andExpect(status().isOk());
+        // Artist exists, tracks exist, insert
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(202, links("artist_track", "artist_id", artist.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Artist.class, artist.getId()));
+
+        mockMvc.perform(relate(post("/api/artists/{id}/tracks", artist.getId()), ids.get(0), ids.get(1)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/artists/{id}/tracks/{track_id}", artist.getId(), ids.get(0)))
+                .andExpect(status().isOk());
+        assertEquals(202, links("artist_track", "artist_id", artist.getId()));
+
+        mockMvc.perform(delete("/api/artists/{id}/tracks", artist.getId()).param("ids", idList(ids)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/artists/{id}/tracks", artist.getId()).param("ids", idList(ids)))
+                .andExpect(status().isOk());
+        assertEquals(200, links("artist_track", "artist_id", artist.getId()));
+    }
+
+    @Test
+    void unknownIdsAreRejectedWithoutLinkingAnything() throws Exception {
+        Artist artist = artistRepository.save(newArtist("careful"));
+        int trackId = trackRepository.save(newTrack("Existing")).getId();
+
+        mockMvc.perform(relate(post("/api/artists/{id}/tracks", artist.getId()), trackId, Integer.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(relate(post("/api/artists/{id}/tracks", Integer.MAX_VALUE), trackId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(relate(post("/api/artists/{id}/tracks", artist.getId())))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, links("artist_track", "artist_id", artist.getId()));
+    }
+
+    @Test
+    void albumTracksAndArtistsAreSetBased() throws Exception {
+        Album album = new Album("Related", "", null);
+        album.setCreatedAt(OffsetDateTime.now());
+        int albumId = albumRepository.save(album).getId();
+        int first = artistRepository.save(newArtist("first")).getId();
+        int second = artistRepository.save(newArtist("second")).getId();
+        int trackId = trackRepository.save(newTrack("On album")).getId();
+
+        mockMvc.perform(relate(post("/api/albums/{id}/artists", albumId), first, second))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/albums/{id}/artists/{artist_id}", albumId, first))
+                .andExpect(status().isOk());
+        mockMvc.perform(relate(post("/api/albums/{id}/tracks", albumId), trackId))
+                .andExpect(status().isOk());
+        assertEquals(2, links("album_artist", "album_id", albumId));
+        assertEquals(1, links("album_track", "album_id", albumId));
+
+        mockMvc.perform(delete("/api/albums/{id}/artists/{artist_id}", albumId, second))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/albums/{id}/tracks", albumId).param("ids", String.valueOf(trackId)))
+                .andExpect(status().isOk());
+        assertEquals(1, links("album_artist", "album_id", albumId));
+        assertEquals(0, links("album_track", "album_id", albumId));
+    }
+
+    // The second insert cannot see the first one's uncommitted row, so it runs into the join table's
+    // primary key once the first commits and has to skip the pair rather than fail
+    @Test
+    void concurrentAddsOfTheSamePairBothSucceed() throws Exception {
+        Album album = new Album("Contended", "", null);
+        album.setCreatedAt(OffsetDateTime.now());
+        int albumId = albumRepository.save(album).getId();
+        int artistId = artistRepository.save(newArtist("contended")).getId();
+        int trackId = trackRepository.save(newTrack("Contended")).getId();
+
+        for (Runnable add : List.<Runnable>of(
+                () -> artistRepository.addTracks(artistId, List.of(trackId)),
+                () -> albumRepository.addTracks(albumId, List.of(trackId)),
+                () -> albumRepository.addArtists(albumId, List.of(artistId)))) {
+            CompletableFuture<Void> second = transactionTemplate.execute(status -> {
+                add.run();
+                CompletableFuture<Void> concurrent = CompletableFuture.runAsync(
+                        () -> transactionTemplate.executeWithoutResult(inner -> add.run()));
+                // Let the second insert reach the uncommitted row before this transaction commits
+                sleep(300);
+
+                return concurrent;
+            });
+            second.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, links("artist_track", "artist_id", artistId));
+        assertEquals(1, links("album_track", "album_id", albumId));
+        assertEquals(1, links("album_artist", "album_id", albumId));
+    }
+
+    @Test
+    @WithMockUser
+    void requiresAdmin() throws Exception {
+        mockMvc.perform(relate(post("/api/albums/{id}/tracks", 1), 1))
+                .andExpect(status().isForbidden());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int links(String table, String column, int id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?",
+                Integer.class, id);
+    }
+
+    private static MockHttpServletRequestBuilder relate(MockHttpServletRequestBuilder request, Integer... ids) {
+        return request.contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[" + idList(List.of(ids)) + "]}");
+    }
+
+    private static String idList(List<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static Artist newArtist(String nickname) {
+        Artist artist = new Artist(nickname, "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        artist.setTrackList(new HashSet<>());
+
+        return artist;
+    }
+
+    private static Track newTrack(String title) {
+        Track track = new Track(title, null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+
+        return track;
+    }
+}
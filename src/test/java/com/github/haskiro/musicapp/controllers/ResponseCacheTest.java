@@ -0,0 +1,103 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.services.ArtistService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ResponseCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void revalidatesDetailWithoutTouchingDatabase() throws Exception {
+        int id = seedArtist("etag").getId();
+        String etag = mockMvc.perform(get("/api/artists/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/artists/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/artists/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nickname").value("etag"));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void serviceMutationInvalidatesCachedResponses() throws Exception {
+        Artist artist = seedArtist("before");
+        String detailEtag = mockMvc.perform(get("/api/artists/{id}", artist.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String pageEtag = mockMvc.perform(get("/api/artists").param("sort", "-id"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Artist update = new Artist("after", "First", "Last", LocalDate.of(1990, 1, 1), null, "", null);
+        update.setId(artist.getId());
+        // MockMvc clears the thread's security context once a request completes
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+        artistService.updateArtist(update, null);
+
+        String newEtag = mockMvc.perform(get("/api/artists/{id}", artist.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, detailEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nickname").value("after"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(detailEtag, newEtag);
+
+        mockMvc.perform(get("/api/artists").param("sort", "-id").header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].nickname").value("after"));
+    }
+
+    @Test
+    void doesNotCacheErrors() throws Exception {
+        mockMvc.perform(get("/api/albums/{id}", Integer.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private Artist seedArtist(String nickname) {
+        Artist artist = new Artist(nickname, "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        artist.setTrackList(new HashSet<>());
+
+        return artistRepository.save(artist);
+    }
+}
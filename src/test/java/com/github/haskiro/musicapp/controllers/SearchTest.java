@@ -0,0 +1,110 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against the in-memory database, so this covers the LIKE search; ranking rules are those of
+ * LikeSearchRepository.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @BeforeAll
+    void seed() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        Track track = new Track("Zyphor", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(now);
+        trackRepository.save(track);
+
+        Album album = new Album("Zyphor Rising", "", null);
+        album.setCreatedAt(now);
+        albumRepository.save(album);
+
+        artistRepository.save(artist("zyphorians", "Band", "Members", "", now));
+        artistRepository.save(artist("quiet", "Mira", "Zyphorova", "Sang on Zyphor Rising", now));
+    }
+
+    @Test
+    void ranksNamesAboveOtherFields() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "ZYPHOR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title", contains("Zyphor", "Zyphor Rising", "zyphorians", "quiet")))
+                .andExpect(jsonPath("$.items[*].type", contains("track", "album", "artist", "artist")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void matchesPrefixesOfEveryTerm() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "zyph ris"))
+                .andExpect(jsonPath("$.items[*].title", contains("Zyphor Rising", "quiet")));
+
+        mockMvc.perform(get("/api/search").param("q", "zyph").param("type", "artist"))
+                .andExpect(jsonPath("$.items[*].title", contains("zyphorians", "quiet")));
+    }
+
+    @Test
+    void pagesFollowTheCursor() throws Exception {
+        String body = mockMvc.perform(get("/api/search").param("q", "zyphor").param("limit", "3"))
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(body, "$.nextCursor");
+
+        mockMvc.perform(get("/api/search").param("q", "zyphor").param("limit", "3").param("cursor", cursor))
+                .andExpect(jsonPath("$.items[*].title", contains("quiet")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        mockMvc.perform(get("/api/search").param("q", "other").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsQueryWithoutWords() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "%_*"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Query must contain a letter or a digit"));
+    }
+
+    private static Artist artist(String nickname, String firstName, String lastName, String bio, OffsetDateTime now) {
+        Artist artist = new Artist(nickname, firstName, lastName, LocalDate.of(1990, 1, 1), null, bio, now);
+        artist.setTrackList(new HashSet<>());
+
+        return artist;
+    }
+}
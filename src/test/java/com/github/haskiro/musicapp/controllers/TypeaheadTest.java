@@ -0,0 +1,77 @@
+package com.github.haskiro.musicapp.controllers;
+
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.services.ArtistService;
+import com.github.haskiro.musicapp.services.TrackService;
+import com.github.haskiro.musicapp.services.TypeaheadService;
+import com.github.haskiro.musicapp.util.search.SearchType;
+import com.github.haskiro.musicapp.util.search.Suggestion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class TypeaheadTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private TrackService trackService;
+    @Autowired
+    private TypeaheadService typeaheadService;
+
+    @Test
+    void followsSavesUpdatesAndDeletes() throws Exception {
+        Artist artist = new Artist("Quillby", "Quinn", "Quill", LocalDate.of(1990, 1, 1), null, "", null);
+        artist.setTrackList(new HashSet<>());
+        artistService.saveArtist(artist);
+        Track track = new Track("Quill Song", null, null, LocalDate.of(2020, 1, 1));
+        trackService.saveTrack(track);
+
+        // MockMvc clears the mock user, so the service is asked until the last change is made
+        assertEquals(List.of(new Suggestion(artist.getId(), "Quillby")),
+                typeaheadService.suggest(SearchType.ARTIST, "quil", 10));
+        assertEquals(List.of(new Suggestion(track.getId(), "Quill Song")),
+                typeaheadService.suggest(SearchType.TRACK, "quil", 10));
+
+        Track renamed = new Track("Quiet Song", null, null, LocalDate.of(2020, 1, 1));
+        renamed.setId(track.getId());
+        trackService.updateTrack(renamed, null);
+        artistService.deleteArtists(List.of(artist.getId()));
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "qui"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", contains("Quiet Song")))
+                .andExpect(jsonPath("$[*].type", contains("track")));
+        mockMvc.perform(get("/api/search/suggest").param("q", "quil"))
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    @Test
+    void rejectsAlbumsAndEmptyQueries() throws Exception {
+        mockMvc.perform(get("/api/search/suggest").param("q", "qu").param("type", "album"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search/suggest").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search/suggest").param("q", "qu").param("limit", "21"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.haskiro.musicapp.security;
+
+import com.github.haskiro.musicapp.util.exceptions.AuthenticationBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor =
+            new PasswordHashingExecutor(1, 1, Duration.ofSeconds(2), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void refusesWorkWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Integer> running = executor.submit("login", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await();
+        CompletableFuture<Integer> queued = executor.submit("login", () -> 2);
+
+        AuthenticationBusyException e = assertThrows(AuthenticationBusyException.class,
+                () -> executor.submit("login", () -> 3));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals(1, running.get());
+        assertEquals(2, queued.get());
+        assertEquals(2, meterRegistry.get("auth.password.queue.wait").tag("operation", "login").timer().count());
+    }
+
+    @Test
+    void carriesSecurityContextToWorker() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user@example.com", null));
+
+        String name = executor.call("change-password",
+                () -> SecurityContextHolder.getContext().getAuthentication().getName());
+
+        assertEquals("user@example.com", name);
+    }
+
+    @Test
+    void rethrowsTaskFailuresUnwrapped() {
+        assertThrows(IllegalStateException.class, () -> executor.call("register", () -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
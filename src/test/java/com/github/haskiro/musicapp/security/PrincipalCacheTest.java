@@ -0,0 +1,53 @@
+package com.github.haskiro.musicapp.security;
+
+import com.github.haskiro.musicapp.models.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    @Test
+    void invalidationEvictsPrincipalAndRevokesOlderTokens() {
+        PrincipalCache cache = new PrincipalCache(10, Duration.ofMinutes(5), Duration.ofMinutes(24));
+        Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+
+        cache.put("user@example.com", UserDetailsImpl.of(1, "user@example.com", Role.ROLE_USER));
+        assertNotNull(cache.get("user@example.com"));
+        assertFalse(cache.isRevoked("user@example.com", issuedBefore));
+
+        cache.invalidate("user@example.com");
+
+        assertNull(cache.get("user@example.com"));
+        assertTrue(cache.isRevoked("user@example.com", issuedBefore));
+        assertFalse(cache.isRevoked("user@example.com", new Date(System.currentTimeMillis() + 1000)));
+    }
+
+    @Test
+    void entriesExpireAndStayBounded() {
+        PrincipalCache expiring = new PrincipalCache(10, Duration.ZERO.minusMillis(1), Duration.ofMinutes(24));
+        expiring.put("a@example.com", UserDetailsImpl.of(1, "a@example.com", Role.ROLE_USER));
+        assertNull(expiring.get("a@example.com"));
+
+        PrincipalCache bounded = new PrincipalCache(2, Duration.ofMinutes(5), Duration.ofMinutes(24));
+        bounded.put("a@example.com", UserDetailsImpl.of(1, "a@example.com", Role.ROLE_USER));
+        bounded.put("b@example.com", UserDetailsImpl.of(2, "b@example.com", Role.ROLE_USER));
+        bounded.put("c@example.com", UserDetailsImpl.of(3, "c@example.com", Role.ROLE_USER));
+        assertNull(bounded.get("a@example.com"));
+        assertNotNull(bounded.get("c@example.com"));
+    }
+
+    @Test
+    void evictedRevocationsStillRejectOlderTokens() {
+        PrincipalCache cache = new PrincipalCache(1, Duration.ofMinutes(5), Duration.ofMinutes(24));
+        Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+
+        cache.invalidate("a@example.com");
+        cache.invalidate("b@example.com");
+
+        assertTrue(cache.isRevoked("a@example.com", issuedBefore));
+    }
+}
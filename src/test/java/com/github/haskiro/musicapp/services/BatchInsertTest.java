@@ -0,0 +1,78 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An album with many tracks must be written in batches, not one statement per row.
+ */
+@SpringBootTest
+class BatchInsertTest {
+    private static final int TRACKS = 120;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void albumWithTracksIsInsertedInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Track> tracks = transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            Artist artist = new Artist("batched", "First", "Last", LocalDate.of(1990, 1, 1), null, "", now);
+            entityManager.persist(artist);
+
+            Album album = new Album("Batched", "", null);
+            album.setCreatedAt(now);
+            album.setArtistList(Set.of(artist));
+            album.setTrackList(new HashSet<>());
+
+            List<Track> created = new ArrayList<>();
+            for (int i = 0; i < TRACKS; i++) {
+                Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1));
+                track.setCreatedAt(now);
+                track.setArtistList(Set.of(artist));
+                entityManager.persist(track);
+
+                album.getTrackList().add(track);
+                created.add(track);
+            }
+            entityManager.persist(album);
+
+            return created;
+        });
+
+        // 3 + 3 * 120 rows; one statement each would be 363
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 20, "statements: " + statements);
+
+        // pooled-lo hands out consecutive ids within a block
+        for (int i = 1; i < 50; i++) {
+            assertEquals(tracks.get(0).getId() + i, tracks.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.util.exceptions.ArtistNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deletes must not load the other side of the relations, so their statement count does not depend on it.
+ */
+@SpringBootTest
+@WithMockUser(roles = "ADMIN")
+class BulkDeleteTest {
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private TrackService trackService;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void artistDeleteStatementCountDoesNotDependOnCatalogSize() {
+        Artist small = seedArtistWithAlbum("small", 1);
+        Artist prolific = seedArtistWithAlbum("prolific", 300);
+        int survivingTrack = jdbcTemplate.queryForObject(
+                "select min(track_id) from artist_track where artist_id = ?", Integer.class, prolific.getId());
+        // Warm the surviving track's cached artists, which the delete must evict
+        assertEquals(1, artistCount(survivingTrack));
+
+        long smallStatements = statementsFor(() -> artistService.deleteArtist(small.getId()));
+        long prolificStatements = statementsFor(() -> artistService.deleteArtist(prolific.getId()));
+
+        assertEquals(smallStatements, prolificStatements);
+        assertTrue(prolificStatements <= 3, "statements: " + prolificStatements);
+        assertFalse(artistRepository.existsById(prolific.getId()));
+        assertEquals(0, links("artist_track", "artist_id", prolific.getId()));
+        assertEquals(0, links("album_artist", "artist_id", prolific.getId()));
+        assertEquals(300, trackRepository.countByIdIn(trackIdsFrom(survivingTrack, 300)));
+        assertEquals(0, artistCount(survivingTrack));
+    }
+
+    @Test
+    void tracksAreDeletedInOneBatchAndMissingIdsSkipped() {
+        Artist artist = seedArtistWithAlbum("batch", 5);
+        List<Integer> trackIds = jdbcTemplate.queryForList(
+                "select track_id from artist_track where artist_id = ? order by track_id", Integer.class, artist.getId());
+        List<Integer> toDelete = new ArrayList<>(trackIds.subList(0, 3));
+        toDelete.add(Integer.MAX_VALUE);
+
+        long statements = statementsFor(() -> assertEquals(3, trackService.deleteTracks(toDelete)));
+
+        assertTrue(statements <= 3, "statements: " + statements);
+        assertEquals(2, links("artist_track", "artist_id", artist.getId()));
+        assertEquals(0, trackRepository.countByIdIn(trackIds.subList(0, 3)));
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from album_track where track_id in (?, ?)",
+                Integer.class, trackIds.get(3), trackIds.get(4)));
+        // Already deleted, so a retry succeeds without doing anything
+        assertEquals(0, trackService.deleteTracks(toDelete));
+    }
+
+    @Test
+    void deletingMissingArtistIsNotFound() {
+        assertThrows(ArtistNotFoundException.class, () -> artistService.deleteArtist(Integer.MAX_VALUE));
+    }
+
+    private Artist seedArtistWithAlbum(String nickname, int tracks) {
+        return transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            Artist artist = new Artist(nickname, "First", "Last", LocalDate.of(1990, 1, 1), null, "", now);
+            artist.setTrackList(new HashSet<>());
+            artistRepository.save(artist);
+
+            Album album = new Album("Album of " + nickname, "", null);
+            album.setCreatedAt(now);
+            album.setArtistList(Set.of(artist));
+            album.setTrackList(new HashSet<>());
+
+            for (int i = 0; i < tracks; i++) {
+                Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1));
+                track.setCreatedAt(now);
+                track.setArtistList(Set.of(artist));
+                trackRepository.save(track);
+                album.getTrackList().add(track);
+            }
+            albumRepository.save(album);
+
+            return artist;
+        });
+    }
+
+    private long statementsFor(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int artistCount(int trackId) {
+        return transactionTemplate.execute(status ->
+                trackRepository.findById(trackId).orElseThrow().getArtistList().size());
+    }
+
+    private int links(String table, String column, int id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?",
+                Integer.class, id);
+    }
+
+    // Tracks of one seeded album get consecutive ids from the pooled sequence
+    private static List<Integer> trackIdsFrom(int first, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(first + i);
+        }
+
+        return ids;
+    }
+}
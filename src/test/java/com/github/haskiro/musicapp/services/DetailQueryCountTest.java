@@ -0,0 +1,112 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.dto.albumDTO.AlbumWithTracksDTO;
+import com.github.haskiro.musicapp.dto.artistDTO.ArtistWithTracksAndAlbumsDTO;
+import com.github.haskiro.musicapp.mappers.AlbumMapper;
+import com.github.haskiro.musicapp.mappers.ArtistMapper;
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Detail reads must issue a constant number of statements however large the related collections are.
+ * Mapping runs outside the transaction, so any collection left uninitialized fails the test.
+ */
+@SpringBootTest
+class DetailQueryCountTest {
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private AlbumService albumService;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private ArtistMapper artistMapper;
+    @Autowired
+    private AlbumMapper albumMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void artistDetailRunsTwoStatements(int size) {
+        Album album = seedAlbum(size);
+        int artistId = album.getArtistList().iterator().next().getId();
+
+        statistics.clear();
+        ArtistWithTracksAndAlbumsDTO dto = artistMapper.toWithTracksAndAlbumsDTO(
+                artistService.findByIdWithTracksAndAlbums(artistId));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(size, dto.getTracks().size());
+        assertEquals(1, dto.getAlbums().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void albumDetailRunsOneStatement(int size) {
+        Album album = seedAlbum(size);
+
+        statistics.clear();
+        AlbumWithTracksDTO dto = albumMapper.toWithTracksDTO(
+                albumService.findByIdWithTracks(album.getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(size, dto.getTracks().size());
+    }
+
+    private Album seedAlbum(int trackCount) {
+        return transactionTemplate.execute(status -> {
+            Artist artist = new Artist("nick", "First", "Last", LocalDate.of(1990, 1, 1),
+                    null, null, OffsetDateTime.now());
+            artistRepository.save(artist);
+
+            Set<Track> tracks = new HashSet<>();
+            for (int i = 0; i < trackCount; i++) {
+                Track track = new Track("Track " + i, null, null, LocalDate.of(2020, 1, 1));
+                track.setCreatedAt(OffsetDateTime.now());
+                track.setArtistList(Set.of(artist));
+                tracks.add(trackRepository.save(track));
+            }
+
+            Album album = new Album("Album", "description", null);
+            album.setCreatedAt(OffsetDateTime.now());
+            album.setTrackList(tracks);
+            album.setArtistList(Set.of(artist));
+
+            return albumRepository.save(album);
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.haskiro.musicapp.services;
+
+import com.github.haskiro.musicapp.models.Artist;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.ArtistRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import com.github.haskiro.musicapp.util.pagination.KeysetRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@WithMockUser(roles = "ADMIN")
+class SecondLevelCacheTest {
+    @Autowired
+    private TrackService trackService;
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void repeatedReadIsServedFromCache() {
+        int id = seedTrack("Cached").getId();
+        entityManagerFactory.getCache().evictAll();
+
+        statistics.clear();
+        trackService.findById(id);
+        trackService.findById(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "track", "result", "hit").functionCounter());
+    }
+
+    @Test
+    void updateReplacesCachedEntity() {
+        Track track = seedTrack("Before");
+        trackService.findById(track.getId());
+
+        Track update = new Track("After", null, null, track.getReleasedAt());
+        update.setId(track.getId());
+        trackService.updateTrack(update, null);
+
+        assertEquals("After", trackService.findById(track.getId()).getTitle());
+    }
+
+    @Test
+    void relationChangeEvictsBothCollections() {
+        Track track = seedTrack("Related");
+        Artist artist = new Artist("cached", "First", "Last", LocalDate.of(1990, 1, 1), null, "", OffsetDateTime.now());
+        artist.setTrackList(new HashSet<>());
+        artistRepository.save(artist);
+        // Warm both collection caches while they are still empty
+        assertEquals(0, trackCount(artist.getId()));
+        assertEquals(0, artistCount(track.getId()));
+
+        artistService.addTracks(artist.getId(), List.of(track.getId()));
+
+        assertEquals(1, trackCount(artist.getId()));
+        assertEquals(1, artistCount(track.getId()));
+    }
+
+    @Test
+    void cachedPageIsInvalidatedByInsert() {
+        seedTrack("Paged");
+        KeysetRequest request = KeysetRequest.of(null, 100, "-id");
+        int before = trackService.findPage(request, null).getItems().size();
+
+        statistics.clear();
+        trackService.findPage(request, null);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+
+        seedTrack("Paged again");
+        assertEquals(Math.min(before + 1, 100), trackService.findPage(request, null).getItems().size());
+    }
+
+    private Track seedTrack(String title) {
+        Track track = new Track(title, null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+
+        return trackRepository.save(track);
+    }
+
+    private int trackCount(int artistId) {
+        return transactionTemplate.execute(status -> artistRepository.findById(artistId).orElseThrow().getTrackList().size());
+    }
+
+    private int artistCount(int trackId) {
+        return transactionTemplate.execute(status -> trackRepository.findById(trackId).orElseThrow().getArtistList().size());
+    }
+}
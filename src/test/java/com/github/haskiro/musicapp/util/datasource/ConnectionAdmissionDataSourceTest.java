@@ -0,0 +1,58 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ConnectionAdmissionDataSourceTest {
+    private final CountDownLatch waiting = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Connection connection = mock(Connection.class);
+
+    @Test
+    void refusesWhenAllWaitersAreTaken() throws Exception {
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(new BlockingDataSource(), 1);
+        CompletableFuture<Connection> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiting.await();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getRejectedCount());
+
+        release.countDown();
+        assertSame(connection, first.get());
+        assertSame(connection, dataSource.getConnection());
+        assertEquals(1, dataSource.getRejectedCount());
+    }
+
+    private class BlockingDataSource extends AbstractDataSource {
+        @Override
+        public Connection getConnection() {
+            waiting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * No thread may wait here, so every connection request is refused and counted against its pool.
+ */
+class ConnectionAdmissionPostProcessorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConnectionAdmissionPostProcessor postProcessor = new ConnectionAdmissionPostProcessor(0);
+    private final HikariDataSource primary = pool(null);
+    private final HikariDataSource replica = pool("replica-1");
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void admitsConnectionsOfPrimaryAndReplicaPools() throws Exception {
+        postProcessor.bindTo(meterRegistry);
+        DataSource admittedPrimary = (DataSource) postProcessor.postProcessAfterInitialization(primary, "primaryDataSource");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(admittedPrimary, List.of(replica),
+                Duration.ofSeconds(5), Duration.ZERO, "select 0", meterRegistry);
+        postProcessor.postProcessBeforeInitialization(routing, "replicaRoutingDataSource");
+        routing.afterPropertiesSet();
+        assertSame(routing, postProcessor.postProcessAfterInitialization(routing, "replicaRoutingDataSource"));
+
+        assertThrows(SQLTransientConnectionException.class, routing::getConnection);
+        assertEquals(1, rejected("primaryDataSource"));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThrows(SQLTransientConnectionException.class, routing::getConnection);
+        assertEquals(1, rejected("replica-1"));
+
+        // The lag check bypasses admission, so a busy replica is not mistaken for an unreachable one
+        routing.checkLag();
+        assertEquals(1, meterRegistry.get("app.datasource.replica.available").gauge().value());
+    }
+
+    private double rejected(String pool) {
+        return meterRegistry.get("jdbc.connections.rejected").tag("pool", pool).functionCounter().count();
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:admission");
+        dataSource.setUsername("sa");
+        dataSource.setPoolName(name);
+
+        return dataSource;
+    }
+}
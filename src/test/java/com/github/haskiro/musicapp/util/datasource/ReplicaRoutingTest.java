@@ -0,0 +1,125 @@
+package com.github.haskiro.musicapp.util.datasource;
+
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The replica is the primary's own in-memory database behind a second pool, so reads see the schema;
+ * which pool served them shows in the routing counters. Its lag is whatever replica_lag holds.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.datasource.replicas[0].jdbc-url=jdbc:h2:mem:routing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "app.datasource.replicas[0].username=sa",
+        "app.datasource.max-lag=PT5S",
+        "app.datasource.primary-after-write=PT0.5S",
+        "app.datasource.lag-check-interval=PT1H",
+        "app.datasource.lag-query=select coalesce(max(seconds), 0) from replica_lag",
+        "app.cache.enabled=false"
+})
+class ReplicaRoutingTest {
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // Reads of one test must not fall into the window after another test's write
+        awaitPrimaryAfterWrite();
+        jdbcTemplate.execute("create table if not exists replica_lag (seconds double precision)");
+        jdbcTemplate.update("delete from replica_lag");
+        replicaRoutingDataSource.checkLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from replica_lag");
+        replicaRoutingDataSource.checkLag();
+    }
+
+    @Test
+    void sendsReadOnlyTransactionsToReplica() throws InterruptedException {
+        Track track = new Track("Routed", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+
+        double writes = count("primary", "write");
+        trackRepository.save(track);
+        assertTrue(count("primary", "write") > writes);
+        awaitPrimaryAfterWrite();
+
+        double reads = count("replica-1", "read");
+        writes = count("primary", "write");
+        assertTrue(trackRepository.findById(track.getId()).isPresent());
+        assertEquals(reads + 1, count("replica-1", "read"));
+        assertEquals(writes, count("primary", "write"));
+    }
+
+    @Test
+    void fallsBackToPrimaryWhileReplicaLags() {
+        jdbcTemplate.update("insert into replica_lag values (30)");
+        replicaRoutingDataSource.checkLag();
+        assertEquals(0, meterRegistry.get("app.datasource.replica.available").gauge().value());
+        assertEquals(30, meterRegistry.get("app.datasource.replica.lag").gauge().value());
+
+        double reads = count("replica-1", "read");
+        double fallbacks = count("primary", "fallback");
+        trackRepository.findAll();
+        assertEquals(reads, count("replica-1", "read"));
+        assertEquals(fallbacks + 1, count("primary", "fallback"));
+
+        jdbcTemplate.update("delete from replica_lag");
+        replicaRoutingDataSource.checkLag();
+        trackRepository.findAll();
+        assertEquals(reads + 1, count("replica-1", "read"));
+    }
+
+    @Test
+    void keepsReadsOnPrimaryRightAfterWriteWhileReplicaLags() throws InterruptedException {
+        // Behind, but not enough to be skipped
+        jdbcTemplate.update("insert into replica_lag values (3)");
+        replicaRoutingDataSource.checkLag();
+        assertEquals(1, meterRegistry.get("app.datasource.replica.available").gauge().value());
+
+        Track track = new Track("Just written", null, null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+        trackRepository.save(track);
+
+        double reads = count("replica-1", "read");
+        double afterWrite = count("primary", "after-write");
+        assertTrue(trackRepository.findById(track.getId()).isPresent());
+        assertEquals(reads, count("replica-1", "read"));
+        assertEquals(afterWrite + 1, count("primary", "after-write"));
+
+        // Reads of a transaction that only read do not extend the window
+        awaitPrimaryAfterWrite();
+        trackRepository.findById(track.getId());
+        assertEquals(reads + 1, count("replica-1", "read"));
+    }
+
+    private void awaitPrimaryAfterWrite() throws InterruptedException {
+        Thread.sleep(600);
+    }
+
+    private double count(String target, String reason) {
+        return meterRegistry.get("app.datasource.routing").tag("target", target).tag("reason", reason)
+                .counter().count();
+    }
+}
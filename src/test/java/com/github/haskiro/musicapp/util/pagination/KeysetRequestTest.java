@@ -0,0 +1,65 @@
+package com.github.haskiro.musicapp.util.pagination;
+
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetRequestTest {
+
+    @Test
+    void firstPageStartsBeforeEveryRow() {
+        KeysetRequest asc = KeysetRequest.of(null, null, "id");
+        KeysetRequest desc = KeysetRequest.of(null, 5, "-createdAt");
+
+        assertEquals(KeysetRequest.DEFAULT_LIMIT, asc.getLimit());
+        assertEquals(Integer.MIN_VALUE, asc.getAfterId());
+        assertEquals(Integer.MAX_VALUE, desc.getAfterId());
+        assertTrue(desc.getAfterCreatedAt().getYear() > 9000);
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2023, 4, 1, 12, 30, 0, 123456000, ZoneOffset.UTC);
+        String cursor = KeysetRequest.encodeCursor(KeysetSort.CREATED_AT_DESC, 42, createdAt);
+
+        KeysetRequest request = KeysetRequest.of(cursor, 10, "-createdAt");
+
+        assertEquals(42, request.getAfterId());
+        assertEquals(createdAt, request.getAfterCreatedAt());
+        assertEquals(11, request.toPageable().getPageSize());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        String idCursor = KeysetRequest.encodeCursor(KeysetSort.ID_ASC, 7, null);
+
+        assertThrows(PaginationException.class, () -> KeysetRequest.of(null, 0, "id"));
+        assertThrows(PaginationException.class, () -> KeysetRequest.of(null, KeysetRequest.MAX_LIMIT + 1, "id"));
+        assertThrows(PaginationException.class, () -> KeysetRequest.of(null, null, "title"));
+        assertThrows(PaginationException.class, () -> KeysetRequest.of(idCursor, null, "-id"));
+        assertThrows(PaginationException.class, () -> KeysetRequest.of("not a cursor", null, "id"));
+    }
+
+    @Test
+    void pageHasCursorOnlyWhenMoreRowsExist() {
+        KeysetRequest request = KeysetRequest.of(null, 2, "id");
+
+        CursorPage<Integer> last = CursorPage.of(List.of(1, 2), request, i -> i, i -> null);
+        CursorPage<Integer> more = CursorPage.of(List.of(1, 2, 3), request, i -> i, i -> null);
+
+        assertNull(last.getNextCursor());
+        assertEquals(List.of(1, 2), more.getItems());
+        assertEquals(2, KeysetRequest.of(more.getNextCursor(), 2, "id").getAfterId());
+    }
+
+    @Test
+    void likePatternEscapesWildcards() {
+        assertNull(KeysetRequest.toLikePattern(" "));
+        assertEquals("%50\\%\\_off\\_%", KeysetRequest.toLikePattern("50%_OFF_"));
+    }
+}
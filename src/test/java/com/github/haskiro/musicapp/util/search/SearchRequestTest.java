@@ -0,0 +1,72 @@
+package com.github.haskiro.musicapp.util.search;
+
+import com.github.haskiro.musicapp.util.exceptions.PaginationException;
+import com.github.haskiro.musicapp.util.exceptions.SearchQueryException;
+import com.github.haskiro.musicapp.util.pagination.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchRequestTest {
+
+    @Test
+    void queryIsReducedToDistinctLowerCaseWords() {
+        SearchRequest request = SearchRequest.of("  Love, U & LOVE'n:* (Ночь)", null, null, null);
+
+        assertEquals(List.of("love", "u", "n", "ночь"), request.getTerms());
+        assertEquals("love:* & u & n & ночь:*", request.toTsQuery());
+        assertEquals(EnumSet.allOf(SearchType.class), request.getTypes());
+    }
+
+    @Test
+    void rejectsQueriesWithoutWords() {
+        assertThrows(SearchQueryException.class, () -> SearchRequest.of(null, null, null, null));
+        assertThrows(SearchQueryException.class, () -> SearchRequest.of(" :*& ", null, null, null));
+        assertThrows(SearchQueryException.class, () -> SearchRequest.of("a".repeat(201), null, null, null));
+        assertThrows(SearchQueryException.class, () -> SearchRequest.of("love", List.of("playlist"), null, null));
+    }
+
+    @Test
+    void cursorCarriesOffsetForTheSameQueryOnly() {
+        SearchRequest first = SearchRequest.of("love", List.of("track"), null, 2);
+        CursorPage<SearchHit> page = first.toPage(hits(3));
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+        assertEquals(2, SearchRequest.of("LOVE", null, page.getNextCursor(), 2).getOffset());
+        assertThrows(PaginationException.class, () -> SearchRequest.of("hate", null, page.getNextCursor(), 2));
+        assertThrows(PaginationException.class, () -> SearchRequest.of("love", null, "bm90IGEgY3Vyc29y", 2));
+
+        assertNull(first.toPage(hits(2)).getNextCursor());
+    }
+
+    @Test
+    void stopsPagingAtMaxOffset() {
+        SearchRequest request = SearchRequest.of("love", null, null, 100);
+        String cursor = null;
+
+        for (int pages = 0; pages < 20; pages++) {
+            cursor = request.toPage(hits(101)).getNextCursor();
+            if (cursor == null)
+                break;
+
+            request = SearchRequest.of("love", null, cursor, 100);
+        }
+
+        assertNull(cursor);
+        assertEquals(SearchRequest.MAX_OFFSET, request.getOffset());
+    }
+
+    private static List<SearchHit> hits(int count) {
+        List<SearchHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hits.add(new SearchHit(SearchType.TRACK, i, "Track " + i, 1));
+        }
+
+        return hits;
+    }
+}
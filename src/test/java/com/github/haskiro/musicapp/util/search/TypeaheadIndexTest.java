@@ -0,0 +1,122 @@
+package com.github.haskiro.musicapp.util.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadIndexTest {
+
+    @Test
+    void findsTitlesByPrefixOfAnyOfTheirFirstWords() {
+        TypeaheadIndex index = new TypeaheadIndex(100);
+        index.load(List.of(new Suggestion(1, "Zyphor Rising"), new Suggestion(2, "Rise Again"),
+                new Suggestion(3, "one two three four five")));
+
+        assertEquals(List.of("Rise Again", "Zyphor Rising"), titles(index.suggest("ris", 10)));
+        assertEquals(List.of("Zyphor Rising"), titles(index.suggest("zyphor ri", 10)));
+        assertEquals(List.of("one two three four five"), titles(index.suggest("four", 10)));
+        assertEquals(List.of(), titles(index.suggest("five", 10)));
+        assertEquals(List.of("Rise Again"), titles(index.suggest("ris", 1)));
+    }
+
+    @Test
+    void ignoresCaseAndSeparators() {
+        TypeaheadIndex index = new TypeaheadIndex(100);
+        index.load(List.of(new Suggestion(1, "AC/DC -- Live!"), new Suggestion(2, "Ночь")));
+
+        assertEquals(List.of("AC/DC -- Live!"), titles(index.suggest("  ac dc-l", 10)));
+        assertEquals(List.of("Ночь"), titles(index.suggest("НО", 10)));
+        assertEquals(List.of(), titles(index.suggest("!!", 10)));
+    }
+
+    @Test
+    void changesAreVisibleBeforeAndAfterCompaction() {
+        TypeaheadIndex index = new TypeaheadIndex(2);
+        index.load(List.of(new Suggestion(1, "Alpha"), new Suggestion(2, "Alpine")));
+
+        index.put(3, "Alps");
+        index.put(1, "Beta");
+        assertEquals(List.of("Alpine", "Alps"), titles(index.suggest("al", 10)));
+        assertEquals(List.of("Beta"), titles(index.suggest("b", 10)));
+
+        index.remove(2);
+        index.put(4, "Alpaca");
+        assertEquals(List.of("Alpaca", "Alps"), titles(index.suggest("al", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void keepsChangesMadeWhileLoading() {
+        TypeaheadIndex index = new TypeaheadIndex(100);
+        index.put(1, "Renamed");
+        index.remove(2);
+
+        // Read from the database before the changes above
+        index.load(List.of(new Suggestion(1, "Original"), new Suggestion(2, "Removed")));
+
+        assertEquals(List.of("Renamed"), titles(index.suggest("re", 10)));
+        assertEquals(List.of(), titles(index.suggest("or", 10)));
+    }
+
+    @Test
+    void mergesManyEntriesInOrder() {
+        List<Suggestion> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new Suggestion(i, "Track " + i));
+        }
+        TypeaheadIndex index = new TypeaheadIndex(10_000);
+        index.load(entries);
+        index.put(5000, "Track 10a");
+
+        assertEquals(List.of("Track 10", "Track 100", "Track 101"), titles(index.suggest("track 10", 3)));
+        assertEquals(List.of("Track 109", "Track 10a"), titles(index.suggest("track 10", 12).subList(10, 12)));
+    }
+
+    @Test
+    void compactedIndexAnswersLikeOneLoadedFromScratch() {
+        Random random = new Random(7);
+        Map<Integer, String> titles = new HashMap<>();
+        for (int id = 0; id < 500; id++) {
+            titles.put(id, randomTitle(random));
+        }
+        TypeaheadIndex index = new TypeaheadIndex(10);
+        index.load(titles.entrySet().stream().map(e -> new Suggestion(e.getKey(), e.getValue())).toList());
+
+        for (int change = 0; change < 300; change++) {
+            int id = random.nextInt(700);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                titles.remove(id);
+            } else {
+                String title = randomTitle(random);
+                index.put(id, title);
+                titles.put(id, title);
+            }
+        }
+        TypeaheadIndex fresh = new TypeaheadIndex(10);
+        fresh.load(titles.entrySet().stream().map(e -> new Suggestion(e.getKey(), e.getValue())).toList());
+
+        for (String prefix : List.of("a", "b", "ab", "ba c", "c", "ca", "1")) {
+            assertEquals(fresh.suggest(prefix, 1000), index.suggest(prefix, 1000), prefix);
+        }
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 1 + random.nextInt(6); i++) {
+            title.append("abc".charAt(random.nextInt(3))).append(random.nextInt(3) == 0 ? " " : "");
+        }
+
+        return title.append(random.nextInt(3)).toString();
+    }
+
+    private static List<String> titles(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::title).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import com.github.haskiro.musicapp.util.exceptions.FileTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaStorageTest {
+    @TempDir
+    Path root;
+
+    private MediaStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new MediaStorage(root.toString(), DataSize.ofKilobytes(1), DataSize.ofKilobytes(256),
+                DataSize.ofKilobytes(4), 2, Duration.ofMillis(1));
+    }
+
+    @Test
+    void storesContentUnderItsHash() throws Exception {
+        byte[] content = new byte[100_000];
+        new Random(1).nextBytes(content);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        StoredFile file = storage.store(MediaKind.TRACK_AUDIO, "song.MP3", new ByteArrayInputStream(content), -1);
+
+        assertEquals(root.resolve("media").resolve(sha256.substring(0, 2)).resolve(sha256 + ".mp3"), file.path());
+        assertArrayEquals(content, Files.readAllBytes(file.path()));
+        assertEquals(content.length, file.size());
+        assertEquals(sha256, file.sha256());
+        assertEquals(1, storage.availableBuffers());
+    }
+
+    @Test
+    void identicalContentSharesOneBlob() throws Exception {
+        byte[] content = new byte[512];
+        StoredFile first = storage.store(MediaKind.TRACK_COVER, "a.jpg", new ByteArrayInputStream(content), -1);
+        FileTime written = Files.getLastModifiedTime(first.path());
+
+        StoredFile second = storage.store(MediaKind.ALBUM_COVER, "b.jpg", new ByteArrayInputStream(content), -1);
+
+        assertEquals(first.path(), second.path());
+        assertEquals(written, Files.getLastModifiedTime(second.path()));
+        assertEquals(first.path(), storage.find(MediaKind.USER_PHOTO, first.sha256()).orElseThrow().path());
+        try (Stream<Path> files = Files.list(root.resolve("media/.incoming"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void findsOnlyBlobsThatFitTheKind() {
+        StoredFile song = storage.store(MediaKind.TRACK_AUDIO, "song.mp3", new ByteArrayInputStream(new byte[16]), -1);
+        StoredFile cover = storage.store(MediaKind.TRACK_COVER, "cover.png", new ByteArrayInputStream(new byte[32]), -1);
+        StoredFile raw = storage.store(MediaKind.TRACK_AUDIO, "raw", new ByteArrayInputStream(new byte[64]), -1);
+        StoredFile oversized = storage.store(MediaKind.TRACK_AUDIO, "long", new ByteArrayInputStream(new byte[2048]), -1);
+
+        assertEquals(song.path(), storage.find(MediaKind.TRACK_AUDIO, song.sha256()).orElseThrow().path());
+        assertTrue(storage.find(MediaKind.TRACK_COVER, song.sha256()).isEmpty());
+        assertTrue(storage.find(MediaKind.TRACK_AUDIO, cover.sha256()).isEmpty());
+        assertTrue(storage.find(MediaKind.ARTIST_PHOTO, raw.sha256()).isPresent());
+        // Over the image limit
+        assertTrue(storage.find(MediaKind.ARTIST_PHOTO, oversized.sha256()).isEmpty());
+        assertTrue(storage.find(MediaKind.TRACK_AUDIO, "0".repeat(64)).isEmpty());
+        assertTrue(storage.find(MediaKind.TRACK_AUDIO, "../" + song.sha256()).isEmpty());
+    }
+
+    @Test
+    void rejectsDeclaredSizeBeforeReading() {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[10]);
+
+        assertThrows(FileTooLargeException.class,
+                () -> storage.store(MediaKind.USER_PHOTO, "photo.jpg", body, 2048));
+        assertEquals(10, body.available());
+    }
+
+    @Test
+    void rejectsOversizedBodyAndLeavesNoFiles() throws Exception {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[4096]);
+
+        assertThrows(FileTooLargeException.class,
+                () -> storage.store(MediaKind.ALBUM_COVER, "cover.jpg", body, -1));
+
+        try (Stream<Path> files = Files.walk(root.resolve("media"))) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void ignoresSuspiciousExtensions() {
+        MockMultipartFile image = new MockMultipartFile("image", "../../etc/pass.w/d", "image/jpeg", new byte[16]);
+
+        StoredFile file = storage.store(MediaKind.TRACK_COVER, image);
+
+        assertEquals(file.sha256(), file.path().getFileName().toString());
+    }
+
+    @Test
+    void sweepDeletesOnlyUnreferencedBlobs() throws Exception {
+        StoredFile kept = storage.store(MediaKind.TRACK_COVER, "a.jpg", new ByteArrayInputStream(new byte[1]), -1);
+        StoredFile dropped = storage.store(MediaKind.TRACK_COVER, "b.jpg", new ByteArrayInputStream(new byte[2]), -1);
+        age(kept.path());
+        age(dropped.path());
+        Thread.sleep(5);
+
+        int deleted = storage.sweep(path -> path.equals(kept.path()));
+
+        assertEquals(1, deleted);
+        assertTrue(Files.exists(kept.path()));
+        assertFalse(Files.exists(dropped.path()));
+    }
+
+    @Test
+    void sweepSparesBlobsWithinGracePeriod() throws Exception {
+        MediaStorage patient = new MediaStorage(root.toString(), DataSize.ofKilobytes(1), DataSize.ofKilobytes(1),
+                DataSize.ofKilobytes(4), 2, Duration.ofHours(1));
+        StoredFile file = patient.store(MediaKind.TRACK_COVER, "a.jpg", new ByteArrayInputStream(new byte[1]), -1);
+        age(file.path());
+
+        assertEquals(0, patient.sweep(path -> false));
+        assertTrue(Files.exists(file.path()));
+    }
+
+    private static void age(Path path) throws Exception {
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.haskiro.musicapp.util.storage;
+
+import com.github.haskiro.musicapp.models.Album;
+import com.github.haskiro.musicapp.models.Track;
+import com.github.haskiro.musicapp.repositories.AlbumRepository;
+import com.github.haskiro.musicapp.repositories.TrackRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class MediaSweeperTest {
+    @Autowired
+    private MediaStorage mediaStorage;
+    @Autowired
+    private MediaSweeper mediaSweeper;
+    @Autowired
+    private TrackRepository trackRepository;
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Test
+    void countsReferencesAcrossEntities() {
+        StoredFile cover = mediaStorage.store(MediaKind.ALBUM_COVER, "cover.png",
+                new ByteArrayInputStream("shared cover".getBytes()), -1);
+        StoredFile orphan = mediaStorage.store(MediaKind.TRACK_COVER, "orphan.png",
+                new ByteArrayInputStream("orphan".getBytes()), -1);
+
+        Track track = new Track("Covered", cover.path().toString(), null, LocalDate.of(2020, 1, 1));
+        track.setCreatedAt(OffsetDateTime.now());
+        trackRepository.save(track);
+        Album album = new Album("Covered", "", cover.path().toString());
+        album.setCreatedAt(OffsetDateTime.now());
+        albumRepository.save(album);
+
+        Map<String, Long> references = mediaSweeper.referenceCounts();
+
+        assertEquals(2L, references.get(cover.path().toString()));
+        assertFalse(references.containsKey(orphan.path().toString()));
+    }
+}